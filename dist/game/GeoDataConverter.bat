@@ -0,0 +1,20 @@
+@echo off
+title Geodata Converter
+color 17
+java -Djava.util.logging.config.file=console.cfg -cp ./../libs/* org.l2jmobius.tools.geodata.GeoDataConverter %*
+if %errorlevel% == 0 (
+echo.
+echo Execution successful
+echo.
+) else (
+echo.
+echo An error has occurred while running the Geodata Converter!
+echo.
+echo Possible reasons for this to happen:
+echo.
+echo - Missing .jar files or ../libs directory.
+echo - Wrong geodata settings:
+echo    check ./config/GeoEngine.ini
+echo.
+)
+pause
\ No newline at end of file
@@ -18,7 +18,15 @@ package handlers.telnethandlers.server;
 
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.concurrent.ThreadPool;
+import org.l2jmobius.gameserver.GameTimeController;
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
+import org.l2jmobius.gameserver.model.actor.stat.CreatureStat;
+import org.l2jmobius.gameserver.network.GameClient;
 import org.l2jmobius.gameserver.network.telnet.ITelnetCommand;
+import org.l2jmobius.gameserver.taskmanager.AttackableThinkTaskManager;
+import org.l2jmobius.gameserver.taskmanager.PathFindingTaskManager;
+import org.l2jmobius.gameserver.taskmanager.RegenerationTaskManager;
+import org.l2jmobius.gameserver.taskmanager.TimingWheelTaskManager;
 
 import io.netty.channel.ChannelHandlerContext;
 
@@ -48,6 +56,38 @@ public class Performance implements ITelnetCommand
 		{
 			sb.append(line + Config.EOL);
 		}
+		for (String line : GameClient.getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : GameTimeController.getInstance().getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : RegenerationTaskManager.getInstance().getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : TimingWheelTaskManager.getInstance().getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : GeoEngine.getInstance().getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : PathFindingTaskManager.getInstance().getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : AttackableThinkTaskManager.getInstance().getStats())
+		{
+			sb.append(line + Config.EOL);
+		}
+		for (String line : CreatureStat.getCacheStats())
+		{
+			sb.append(line + Config.EOL);
+		}
 		return sb.toString();
 	}
 }
@@ -510,6 +510,15 @@ public class Config
 	public static int SCHEDULED_THREAD_POOL_COUNT;
 	public static int INSTANT_THREAD_POOL_COUNT;
 	public static int IO_PACKET_THREAD_CORE_SIZE;
+	public static boolean SHARED_BROADCAST_PACKETS;
+	public static int PACKET_FLUSH_DELAY;
+	public static boolean NETWORK_NATIVE_TRANSPORT;
+	public static boolean OFFLOAD_BLOCKING_PACKETS;
+	public static int NETWORK_ACCEPTOR_THREADS;
+	public static int MOVEMENT_THREAD_COUNT;
+	public static int AI_THREAD_COUNT;
+	public static boolean STAT_CACHE;
+	public static boolean COMPILE_STAT_FUNCTIONS;
 	public static boolean THREADS_FOR_LOADING;
 	public static boolean DEADLOCK_DETECTOR;
 	public static int DEADLOCK_CHECK_INTERVAL;
@@ -730,6 +739,9 @@ public class Config
 	public static int SPOILED_CORPSE_EXTEND_TIME;
 	public static int CORPSE_CONSUME_SKILL_ALLOWED_TIME_BEFORE_DECAY;
 	public static int MAX_AGGRO_RANGE;
+	public static boolean PROXIMITY_AGGRO;
+	public static int IDLE_THINK_RATE;
+	public static boolean SUSPEND_IDLE_THINK;
 	public static int MAX_DRIFT_RANGE;
 	public static boolean AGGRO_DISTANCE_CHECK_ENABLED;
 	public static int AGGRO_DISTANCE_CHECK_RANGE;
@@ -1061,8 +1073,20 @@ public class Config
 	// --------------------------------------------------
 	public static Path GEODATA_PATH;
 	public static GeoType GEODATA_TYPE;
+	public static boolean GEODATA_MAPPED;
+	public static boolean GEODATA_CACHE;
+	public static Path GEODATA_CACHE_PATH;
+	public static boolean GEODATA_LAZY_LOAD;
+	public static long GEODATA_LAZY_IDLE_TIME;
+	public static long GEODATA_LAZY_MEMORY_LIMIT;
 	public static boolean PATHFINDING;
 	public static String PATHFIND_BUFFERS;
+	public static int PATHFIND_CACHE_SIZE;
+	public static long PATHFIND_CACHE_TIME;
+	public static boolean PATHFIND_HIERARCHICAL;
+	public static int PATHFIND_HIERARCHICAL_DISTANCE;
+	public static int PATHFIND_ASYNC_THREADS;
+	public static int PATHFIND_ASYNC_QUEUE_SIZE;
 	public static int MOVE_WEIGHT;
 	public static int MOVE_WEIGHT_DIAG;
 	public static int OBSTACLE_WEIGHT;
@@ -1071,6 +1095,8 @@ public class Config
 	public static int MAX_ITERATIONS;
 	public static int PART_OF_CHARACTER_HEIGHT;
 	public static int MAX_OBSTACLE_HEIGHT;
+	public static int LOS_CACHE_SIZE;
+	public static long LOS_CACHE_TIME;
 	
 	// --------------------------------------------------
 	// Custom Settings
@@ -1468,6 +1494,23 @@ public class Config
 			SCHEDULED_THREAD_POOL_COUNT = serverSettings.getInt("ScheduledThreadPoolCount", 40);
 			INSTANT_THREAD_POOL_COUNT = serverSettings.getInt("InstantThreadPoolCount", 20);
 			IO_PACKET_THREAD_CORE_SIZE = serverSettings.getInt("UrgentPacketThreadCoreSize", 20);
+			SHARED_BROADCAST_PACKETS = serverSettings.getBoolean("SharedBroadcastPackets", true);
+			PACKET_FLUSH_DELAY = serverSettings.getInt("PacketFlushDelay", 0);
+			NETWORK_NATIVE_TRANSPORT = serverSettings.getBoolean("NativeTransport", true);
+			NETWORK_ACCEPTOR_THREADS = serverSettings.getInt("AcceptorThreads", 1);
+			OFFLOAD_BLOCKING_PACKETS = serverSettings.getBoolean("OffloadBlockingPackets", true);
+			MOVEMENT_THREAD_COUNT = serverSettings.getInt("MovementThreadCount", 0);
+			if (MOVEMENT_THREAD_COUNT <= 0)
+			{
+				MOVEMENT_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+			}
+			AI_THREAD_COUNT = serverSettings.getInt("AiThreadCount", 0);
+			if (AI_THREAD_COUNT <= 0)
+			{
+				AI_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+			}
+			STAT_CACHE = serverSettings.getBoolean("StatCache", true);
+			COMPILE_STAT_FUNCTIONS = serverSettings.getBoolean("CompileStatFunctions", true);
 			THREADS_FOR_LOADING = serverSettings.getBoolean("ThreadsForLoading", false);
 			DEADLOCK_DETECTOR = serverSettings.getBoolean("DeadLockDetector", true);
 			DEADLOCK_CHECK_INTERVAL = serverSettings.getInt("DeadLockCheckInterval", 20);
@@ -2243,6 +2286,9 @@ public class Config
 			SPOILED_CORPSE_EXTEND_TIME = NPC.getInt("SpoiledCorpseExtendTime", 10);
 			CORPSE_CONSUME_SKILL_ALLOWED_TIME_BEFORE_DECAY = NPC.getInt("CorpseConsumeSkillAllowedTimeBeforeDecay", 2000);
 			MAX_AGGRO_RANGE = NPC.getInt("MaxAggroRange", 450);
+			PROXIMITY_AGGRO = NPC.getBoolean("ProximityAggro", true);
+			IDLE_THINK_RATE = Math.max(1, NPC.getInt("IdleThinkRate", 1));
+			SUSPEND_IDLE_THINK = NPC.getBoolean("SuspendIdleThink", true);
 			MAX_DRIFT_RANGE = NPC.getInt("MaxDriftRange", 300);
 			AGGRO_DISTANCE_CHECK_ENABLED = NPC.getBoolean("AggroDistanceCheckEnabled", false);
 			AGGRO_DISTANCE_CHECK_RANGE = NPC.getInt("AggroDistanceCheckRange", 1500);
@@ -2599,8 +2645,20 @@ public class Config
 			final PropertiesParser GeoEngine = new PropertiesParser(GEOENGINE_CONFIG_FILE);
 			GEODATA_PATH = Paths.get(GeoEngine.getString("GeoDataPath", "./data/geodata"));
 			GEODATA_TYPE = Enum.valueOf(GeoType.class, GeoEngine.getString("GeoDataType", "L2J"));
+			GEODATA_MAPPED = GeoEngine.getBoolean("GeoDataMapped", false);
+			GEODATA_CACHE = GeoEngine.getBoolean("GeoDataCache", false);
+			GEODATA_CACHE_PATH = Paths.get(GeoEngine.getString("GeoDataCachePath", "./data/geodata/cache"));
+			GEODATA_LAZY_LOAD = GeoEngine.getBoolean("GeoDataLazyLoad", false);
+			GEODATA_LAZY_IDLE_TIME = GeoEngine.getLong("GeoDataLazyIdleTime", 30) * 60000;
+			GEODATA_LAZY_MEMORY_LIMIT = GeoEngine.getLong("GeoDataLazyMemoryLimit", 0) * 1048576;
 			PATHFINDING = GeoEngine.getBoolean("PathFinding", true);
 			PATHFIND_BUFFERS = GeoEngine.getString("PathFindBuffers", "500x10;1000x10;3000x5;5000x3;10000x3");
+			PATHFIND_CACHE_SIZE = GeoEngine.getInt("PathFindCacheSize", 10000);
+			PATHFIND_CACHE_TIME = GeoEngine.getLong("PathFindCacheTime", 5000);
+			PATHFIND_HIERARCHICAL = GeoEngine.getBoolean("PathFindHierarchical", false);
+			PATHFIND_HIERARCHICAL_DISTANCE = GeoEngine.getInt("PathFindHierarchicalDistance", 64);
+			PATHFIND_ASYNC_THREADS = GeoEngine.getInt("PathFindAsyncThreads", 2);
+			PATHFIND_ASYNC_QUEUE_SIZE = GeoEngine.getInt("PathFindAsyncQueueSize", 1000);
 			MOVE_WEIGHT = GeoEngine.getInt("MoveWeight", 10);
 			MOVE_WEIGHT_DIAG = GeoEngine.getInt("MoveWeightDiag", 14);
 			OBSTACLE_WEIGHT = GeoEngine.getInt("ObstacleWeight", 30);
@@ -2609,6 +2667,8 @@ public class Config
 			MAX_ITERATIONS = GeoEngine.getInt("MaxIterations", 3500);
 			PART_OF_CHARACTER_HEIGHT = GeoEngine.getInt("PartOfCharacterHeight", 75);
 			MAX_OBSTACLE_HEIGHT = GeoEngine.getInt("MaxObstacleHeight", 32);
+			LOS_CACHE_SIZE = GeoEngine.getInt("LineOfSightCacheSize", 20000);
+			LOS_CACHE_TIME = GeoEngine.getLong("LineOfSightCacheTime", 1000);
 			
 			// Load AllowedPlayerRaces config file (if exists)
 			final PropertiesParser AllowedPlayerRaces = new PropertiesParser(CUSTOM_ALLOWED_PLAYER_RACES_CONFIG_FILE);
@@ -3348,6 +3408,8 @@ public class Config
 			GAME_SERVER_LOGIN_PORT = ServerSettings.getInt("LoginPort", 9013);
 			LOGIN_BIND_ADDRESS = ServerSettings.getString("LoginserverHostname", "0.0.0.0");
 			PORT_LOGIN = ServerSettings.getInt("LoginserverPort", 2106);
+			NETWORK_NATIVE_TRANSPORT = ServerSettings.getBoolean("NativeTransport", true);
+			NETWORK_ACCEPTOR_THREADS = ServerSettings.getInt("AcceptorThreads", 1);
 			try
 			{
 				DATAPACK_ROOT = new File(ServerSettings.getString("DatapackRoot", ".").replaceAll("\\\\", "/")).getCanonicalFile();
@@ -31,4 +31,12 @@ public interface IIncomingPacket<T>
 	boolean read(T client, PacketReader packet);
 	
 	void run(T client) throws Exception;
+	
+	/**
+	 * @return {@code true} if running this packet may block its thread (database access, login server requests), so it should not run on a network thread.
+	 */
+	default boolean isBlocking()
+	{
+		return false;
+	}
 }
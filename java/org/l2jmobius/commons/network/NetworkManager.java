@@ -16,6 +16,8 @@
  */
 package org.l2jmobius.commons.network;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Logger;
 
 import io.netty.bootstrap.ServerBootstrap;
@@ -24,8 +26,8 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.EpollChannelOption;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 
 /**
  * @author Nos
@@ -37,6 +39,7 @@ public class NetworkManager
 	private final ServerBootstrap _serverBootstrap;
 	private final String _host;
 	private final int _port;
+	private final List<ChannelFuture> _channelFutures = new ArrayList<>();
 	
 	private ChannelFuture _channelFuture;
 	
@@ -45,10 +48,16 @@ public class NetworkManager
 		// @formatter:off
 		_serverBootstrap = new ServerBootstrap()
 			.group(bossGroup, workerGroup)
-			.channel(NioServerSocketChannel.class)
+			.channel(NetworkTransport.getServerChannelClass())
 			.childHandler(clientInitializer)
+			.childOption(ChannelOption.TCP_NODELAY, true)
 			.childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
 		// @formatter:on
+		if (NetworkTransport.getAcceptorCount() > 1)
+		{
+			// Each bound channel gets its own boss thread and the kernel balances new connections between them.
+			_serverBootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+		}
 		_host = host;
 		_port = port;
 	}
@@ -65,12 +74,20 @@ public class NetworkManager
 			return;
 		}
 		
-		_channelFuture = _serverBootstrap.bind(_host, _port).sync();
+		_channelFutures.clear();
+		for (int i = 0; i < NetworkTransport.getAcceptorCount(); i++)
+		{
+			_channelFuture = _serverBootstrap.bind(_host, _port).sync();
+			_channelFutures.add(_channelFuture);
+		}
 		LOGGER.info(getClass().getSimpleName() + ": Listening on " + _host + ":" + _port);
 	}
 	
 	public void stop() throws InterruptedException
 	{
-		_channelFuture.channel().close().sync();
+		for (ChannelFuture channelFuture : _channelFutures)
+		{
+			channelFuture.channel().close().sync();
+		}
 	}
 }
@@ -0,0 +1,103 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.commons.network;
+
+import java.util.logging.Logger;
+
+import org.l2jmobius.Config;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+/**
+ * Selects the Netty transport used by all network services.<br>
+ * The native epoll transport (edge-triggered) is used on Linux when enabled by config, otherwise NIO.
+ * @author Mobius
+ */
+public class NetworkTransport
+{
+	private static final Logger LOGGER = Logger.getLogger(NetworkTransport.class.getName());
+	
+	private static final boolean EPOLL = isEpollUsable();
+	
+	private static boolean isEpollUsable()
+	{
+		if (!Config.NETWORK_NATIVE_TRANSPORT)
+		{
+			return false;
+		}
+		
+		if (!Epoll.isAvailable())
+		{
+			LOGGER.info("NetworkTransport: Native epoll transport is not available, using NIO. Reason: " + Epoll.unavailabilityCause().getMessage());
+			return false;
+		}
+		
+		LOGGER.info("NetworkTransport: Using native epoll transport.");
+		return true;
+	}
+	
+	/**
+	 * @return {@code true} if the native epoll transport is used
+	 */
+	public static boolean isNative()
+	{
+		return EPOLL;
+	}
+	
+	/**
+	 * @param threads the number of threads
+	 * @return a new event loop group of the selected transport
+	 */
+	public static EventLoopGroup newEventLoopGroup(int threads)
+	{
+		return EPOLL ? new EpollEventLoopGroup(threads) : new NioEventLoopGroup(threads);
+	}
+	
+	/**
+	 * @return the number of server channels bound on the same address, each accepting on its own thread
+	 */
+	public static int getAcceptorCount()
+	{
+		// Several acceptors on the same port require SO_REUSEPORT, which is only supported by epoll.
+		return EPOLL ? Math.max(1, Config.NETWORK_ACCEPTOR_THREADS) : 1;
+	}
+	
+	/**
+	 * @return the server channel class of the selected transport
+	 */
+	public static Class<? extends ServerChannel> getServerChannelClass()
+	{
+		return EPOLL ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+	}
+	
+	/**
+	 * @return the client channel class of the selected transport
+	 */
+	public static Class<? extends SocketChannel> getChannelClass()
+	{
+		return EPOLL ? EpollSocketChannel.class : NioSocketChannel.class;
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.commons.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.AbstractReferenceCounted;
+
+/**
+ * An outgoing packet that is written only once no matter how many channels it is sent to.<br>
+ * The first channel that encodes it stores the written body in a pooled buffer, every other channel only copies that body before encrypting it.<br>
+ * Every channel write consumes one reference, so {@link #retain()} must be called before each write and {@link #release()} once the broadcast is over.
+ * @author Mobius
+ * @param <T> the type of the wrapped packet
+ */
+public class SharedPacket<T extends IOutgoingPacket>extends AbstractReferenceCounted implements IOutgoingPacket
+{
+	private final T _packet;
+	private volatile ByteBuf _body;
+	
+	public SharedPacket(T packet)
+	{
+		_packet = packet;
+	}
+	
+	/**
+	 * @return the wrapped packet
+	 */
+	public T getPacket()
+	{
+		return _packet;
+	}
+	
+	/**
+	 * Copies the written body of the wrapped packet into the given buffer, writing it first if no channel did it yet.
+	 * @param alloc the allocator used for the shared body
+	 * @param out the buffer of the channel
+	 * @return {@code true} if the packet was writen successfully, {@code false} otherwise.
+	 */
+	public boolean writeTo(ByteBufAllocator alloc, ByteBuf out)
+	{
+		ByteBuf body = _body;
+		if (body == null)
+		{
+			synchronized (this)
+			{
+				body = _body;
+				if (body == null)
+				{
+					body = alloc.buffer();
+					boolean written = false;
+					try
+					{
+						written = _packet.write(new PacketWriter(body));
+					}
+					finally
+					{
+						if (!written)
+						{
+							// Do not try again for the next channels.
+							body.clear();
+						}
+						_body = body;
+					}
+				}
+			}
+		}
+		
+		if (!body.isReadable())
+		{
+			return false;
+		}
+		
+		out.writeBytes(body, body.readerIndex(), body.readableBytes());
+		return true;
+	}
+	
+	@Override
+	public boolean write(PacketWriter packet)
+	{
+		return _packet.write(packet);
+	}
+	
+	@Override
+	public SharedPacket<T> retain()
+	{
+		super.retain();
+		return this;
+	}
+	
+	@Override
+	public SharedPacket<T> touch(Object hint)
+	{
+		return this;
+	}
+	
+	@Override
+	protected void deallocate()
+	{
+		final ByteBuf body = _body;
+		if (body != null)
+		{
+			body.release();
+		}
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "SharedPacket(" + _packet + ")";
+	}
+}
@@ -16,18 +16,18 @@
  */
 package org.l2jmobius.commons.network.codecs;
 
-import java.util.List;
-
 import org.l2jmobius.commons.network.ICrypt;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.ByteToMessageCodec;
+import io.netty.channel.ChannelPromise;
 
 /**
+ * Encrypts and decrypts whole frames in place, passing the same buffers down the pipeline instead of copies.
  * @author Nos
  */
-public class CryptCodec extends ByteToMessageCodec<ByteBuf>
+public class CryptCodec extends ChannelDuplexHandler
 {
 	private final ICrypt _crypt;
 	
@@ -39,33 +39,38 @@ public class CryptCodec extends ByteToMessageCodec<ByteBuf>
 	
 	/*
 	 * (non-Javadoc)
-	 * @see io.netty.handler.codec.ByteToMessageCodec#encode(io.netty.channel.ChannelHandlerContext, java.lang.Object, io.netty.buffer.ByteBuf)
+	 * @see io.netty.channel.ChannelDuplexHandler#write(io.netty.channel.ChannelHandlerContext, java.lang.Object, io.netty.channel.ChannelPromise)
 	 */
 	@Override
-	protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out)
+	public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
 	{
 		// Check if there are any data to encrypt.
-		if (!msg.isReadable())
+		if ((msg instanceof ByteBuf) && ((ByteBuf) msg).isReadable())
 		{
-			return;
+			final ByteBuf buf = (ByteBuf) msg;
+			buf.resetReaderIndex();
+			_crypt.encrypt(buf);
+			buf.resetReaderIndex();
 		}
 		
-		msg.resetReaderIndex();
-		_crypt.encrypt(msg);
-		msg.resetReaderIndex();
-		out.writeBytes(msg);
+		ctx.write(msg, promise);
 	}
 	
 	/*
 	 * (non-Javadoc)
-	 * @see io.netty.handler.codec.ByteToMessageCodec#decode(io.netty.channel.ChannelHandlerContext, io.netty.buffer.ByteBuf, java.util.List)
+	 * @see io.netty.channel.ChannelInboundHandlerAdapter#channelRead(io.netty.channel.ChannelHandlerContext, java.lang.Object)
 	 */
 	@Override
-	protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out)
+	public void channelRead(ChannelHandlerContext ctx, Object msg)
 	{
-		in.resetReaderIndex();
-		_crypt.decrypt(in);
-		in.readerIndex(in.writerIndex());
-		out.add(in.copy(0, in.writerIndex()));
+		if (msg instanceof ByteBuf)
+		{
+			final ByteBuf buf = (ByteBuf) msg;
+			buf.resetReaderIndex();
+			_crypt.decrypt(buf);
+			buf.resetReaderIndex();
+		}
+		
+		ctx.fireChannelRead(msg);
 	}
 }
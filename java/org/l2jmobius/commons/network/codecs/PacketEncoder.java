@@ -21,6 +21,7 @@ import java.util.logging.Logger;
 
 import org.l2jmobius.commons.network.IOutgoingPacket;
 import org.l2jmobius.commons.network.PacketWriter;
+import org.l2jmobius.commons.network.SharedPacket;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler.Sharable;
@@ -48,7 +49,8 @@ public class PacketEncoder extends MessageToByteEncoder<IOutgoingPacket>
 	{
 		try
 		{
-			if (packet.write(new PacketWriter(out)))
+			// Shared packets are already written, only copy their body.
+			if ((packet instanceof SharedPacket) ? ((SharedPacket<?>) packet).writeTo(ctx.alloc(), out) : packet.write(new PacketWriter(out)))
 			{
 				if (out.writerIndex() > _maxPacketSize)
 				{
@@ -16,12 +16,17 @@
  */
 package org.l2jmobius.gameserver;
 
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.l2jmobius.Config;
 import org.l2jmobius.commons.concurrent.ThreadPool;
 import org.l2jmobius.commons.util.Chronos;
 import org.l2jmobius.gameserver.instancemanager.DayNightSpawnManager;
@@ -44,8 +49,19 @@ public class GameTimeController extends Thread
 	
 	private static GameTimeController _instance;
 	
+	/** Below this number of moving creatures the split costs more than it saves. */
+	private static final int PARALLEL_MOVE_THRESHOLD = 256;
+	
 	private final Set<Creature> _movingObjects = ConcurrentHashMap.newKeySet();
 	private final long _referenceTime;
+	private final ForkJoinPool _movePool;
+	
+	// Tick statistics, only written by this thread.
+	private volatile long _tickCount = 0;
+	private volatile long _totalTickTime = 0;
+	private volatile long _lastTickTime = 0;
+	private volatile long _maxTickTime = 0;
+	private volatile long _overrunCount = 0;
 	
 	private GameTimeController()
 	{
@@ -60,6 +76,8 @@ public class GameTimeController extends Thread
 		c.set(Calendar.MILLISECOND, 0);
 		_referenceTime = c.getTimeInMillis();
 		
+		_movePool = Config.MOVEMENT_THREAD_COUNT > 1 ? new ForkJoinPool(Config.MOVEMENT_THREAD_COUNT) : null;
+		
 		super.start();
 	}
 	
@@ -127,10 +145,92 @@ public class GameTimeController extends Thread
 	 * <li>If movement is finished, the Creature is removed from movingObjects</li>
 	 * <li>Create a task to update the _knownObject and _knowPlayers of each Creature that finished its movement and of their already known WorldObject then notify AI with EVT_ARRIVED</li>
 	 * </ul>
+	 * When many creatures move, their positions are calculated in parallel. Positions are then set by this thread, which also updates world regions and zones.
 	 */
 	private void moveObjects()
 	{
-		_movingObjects.removeIf(Creature::updatePosition);
+		if ((_movePool == null) || (_movingObjects.size() < PARALLEL_MOVE_THRESHOLD))
+		{
+			_movingObjects.removeIf(Creature::updatePosition);
+			return;
+		}
+		
+		final List<Creature> creatures = new ArrayList<>(_movingObjects);
+		
+		// A few groups per thread, so that slow calculations do not leave the other threads idle.
+		final int groupSize = Math.max(1, creatures.size() / (Config.MOVEMENT_THREAD_COUNT * 4));
+		final List<MoveGroup> groups = new ArrayList<>();
+		for (int from = 0; from < creatures.size(); from += groupSize)
+		{
+			groups.add(new MoveGroup(creatures.subList(from, Math.min(from + groupSize, creatures.size()))));
+		}
+		_movePool.invokeAll(groups);
+		
+		for (MoveGroup group : groups)
+		{
+			for (Creature creature : group._calculated)
+			{
+				try
+				{
+					if (creature.applyPosition())
+					{
+						_movingObjects.remove(creature);
+					}
+				}
+				catch (Exception e)
+				{
+					LOGGER.log(Level.WARNING, GameTimeController.class.getSimpleName() + ": Problem updating position of " + creature, e);
+				}
+			}
+		}
+	}
+	
+	private class MoveGroup implements Callable<Void>
+	{
+		private final List<Creature> _creatures;
+		/** Creatures with a calculated position to set. */
+		protected final List<Creature> _calculated = new ArrayList<>();
+		
+		public MoveGroup(List<Creature> creatures)
+		{
+			_creatures = creatures;
+		}
+		
+		@Override
+		public Void call()
+		{
+			for (Creature creature : _creatures)
+			{
+				try
+				{
+					if (creature.calculatePosition())
+					{
+						_calculated.add(creature);
+					}
+				}
+				catch (Exception e)
+				{
+					LOGGER.log(Level.WARNING, GameTimeController.class.getSimpleName() + ": Problem calculating position of " + creature, e);
+				}
+			}
+			return null;
+		}
+	}
+	
+	public String[] getStats()
+	{
+		final long tickCount = _tickCount;
+		return new String[]
+		{
+			"Movement:",
+			" |- Moving creatures: .. " + _movingObjects.size(),
+			" |- Threads: ........... " + (_movePool == null ? 1 : _movePool.getParallelism()),
+			" |- Ticks: ............. " + tickCount,
+			" |- Last tick: ......... " + _lastTickTime + " ms",
+			" |- Average tick: ...... " + (tickCount == 0 ? 0 : _totalTickTime / tickCount) + " ms",
+			" |- Max tick: .......... " + _maxTickTime + " ms",
+			" |- Overruns: .......... " + _overrunCount,
+		};
 	}
 	
 	public void stopTimer()
@@ -155,7 +255,8 @@ public class GameTimeController extends Thread
 		
 		while (true)
 		{
-			nextTickTime = ((Chronos.currentTimeMillis() / MILLIS_IN_TICK) * MILLIS_IN_TICK) + 100;
+			final long tickStart = Chronos.currentTimeMillis();
+			nextTickTime = ((tickStart / MILLIS_IN_TICK) * MILLIS_IN_TICK) + 100;
 			
 			try
 			{
@@ -166,6 +267,19 @@ public class GameTimeController extends Thread
 				LOGGER.log(Level.WARNING, getClass().getSimpleName(), e);
 			}
 			
+			final long tickTime = Chronos.currentTimeMillis() - tickStart;
+			_lastTickTime = tickTime;
+			_totalTickTime += tickTime;
+			_tickCount++;
+			if (tickTime > _maxTickTime)
+			{
+				_maxTickTime = tickTime;
+			}
+			if (tickTime > MILLIS_IN_TICK)
+			{
+				_overrunCount++;
+			}
+			
 			sleepTime = nextTickTime - Chronos.currentTimeMillis();
 			if (sleepTime > 0)
 			{
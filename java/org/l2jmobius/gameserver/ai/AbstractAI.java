@@ -39,6 +39,7 @@ import org.l2jmobius.gameserver.network.serverpackets.StopMove;
 import org.l2jmobius.gameserver.network.serverpackets.StopRotation;
 import org.l2jmobius.gameserver.taskmanager.AttackStanceTaskManager;
 import org.l2jmobius.gameserver.taskmanager.CreatureFollowTaskManager;
+import org.l2jmobius.gameserver.taskmanager.PathFindingTaskManager;
 
 /**
  * Mother class of all objects AI in the world.<br>
@@ -540,6 +541,12 @@ public abstract class AbstractAI implements Ctrl
 			// return;
 			// }
 			
+			// Path is still calculated, the move is broadcast once it is ready.
+			if (PathFindingTaskManager.getInstance().isPending(_actor))
+			{
+				return;
+			}
+			
 			// Send a Server->Client packet MoveToPawn/CharMoveToLocation to the actor and all PlayerInstance in its _knownPlayers
 			if (pawn.isCreature())
 			{
@@ -593,7 +600,11 @@ public abstract class AbstractAI implements Ctrl
 			_actor.moveToLocation(x, y, z, 0);
 			
 			// Send a Server->Client packet CharMoveToLocation to the actor and all PlayerInstance in its _knownPlayers
-			_actor.broadcastMoveToLocation();
+			// Path is still calculated, the move is broadcast once it is ready.
+			if (!PathFindingTaskManager.getInstance().isPending(_actor))
+			{
+				_actor.broadcastMoveToLocation();
+			}
 		}
 		else
 		{
@@ -20,9 +20,11 @@ import static org.l2jmobius.gameserver.ai.CtrlIntention.AI_INTENTION_ACTIVE;
 import static org.l2jmobius.gameserver.ai.CtrlIntention.AI_INTENTION_ATTACK;
 import static org.l2jmobius.gameserver.ai.CtrlIntention.AI_INTENTION_IDLE;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.concurrent.ThreadPool;
@@ -38,6 +40,7 @@ import org.l2jmobius.gameserver.model.Location;
 import org.l2jmobius.gameserver.model.Spawn;
 import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.model.WorldObject;
+import org.l2jmobius.gameserver.model.WorldRegion;
 import org.l2jmobius.gameserver.model.actor.Attackable;
 import org.l2jmobius.gameserver.model.actor.Creature;
 import org.l2jmobius.gameserver.model.actor.Npc;
@@ -105,6 +108,10 @@ public class AttackableAI extends CreatureAI
 	protected static final int FEAR_TICKS = 5;
 	private static final int RANDOM_WALK_RATE = 30; // confirmed
 	private static final int MAX_ATTACK_TIMEOUT = 1200; // int ticks, i.e. 2min
+	/** Distance past the aggro range that keeps the aggro scan going. Creatures moving inside their world cells do not get closer than this to each other. */
+	private static final int AGGRO_SCAN_MARGIN = 3 << WorldRegion.CELL_SHIFT;
+	/** Highest aggro range of attackables with an AI, to find the ones a playable entering a world cell can come near. */
+	private static final AtomicInteger AGGRO_SCAN_RANGE = new AtomicInteger();
 	/** The delay after which the attacked is stopped. */
 	private int _attackTimeout;
 	/** The Attackable aggro counter. */
@@ -115,6 +122,8 @@ public class AttackableAI extends CreatureAI
 	// Fear parameters
 	private int _fearTime;
 	private Future<?> _fearTask = null;
+	/** True while a playable may be near enough to be aggroed. */
+	private volatile boolean _aggroScan = true;
 	
 	/**
 	 * Constructor of AttackableAI.
@@ -125,6 +134,53 @@ public class AttackableAI extends CreatureAI
 		super(creature);
 		_attackTimeout = Integer.MAX_VALUE;
 		_globalAggro = -10; // 10 seconds timeout of ATTACK after respawn
+		AGGRO_SCAN_RANGE.accumulateAndGet(creature.getAggroRange() + AGGRO_SCAN_MARGIN, Math::max);
+	}
+	
+	/**
+	 * Resumes the aggro scan of attackables the given object came near, or of the object itself when it is an attackable.<br>
+	 * Called when the object enters a world cell.
+	 * @param object the object
+	 */
+	public static void notifyAggroScan(WorldObject object)
+	{
+		if (!Config.PROXIMITY_AGGRO)
+		{
+			return;
+		}
+		
+		if (object.isPlayable())
+		{
+			World.getInstance().forEachVisibleObjectInRange(object, Attackable.class, AGGRO_SCAN_RANGE.get(), attackable ->
+			{
+				if (attackable.hasAI() && attackable.isInsideRadius2D(object, attackable.getAggroRange() + AGGRO_SCAN_MARGIN))
+				{
+					final CreatureAI ai = attackable.getAI();
+					if (ai instanceof AttackableAI)
+					{
+						((AttackableAI) ai)._aggroScan = true;
+					}
+				}
+			});
+		}
+		else if (object.isAttackable() && ((Attackable) object).hasAI())
+		{
+			final CreatureAI ai = ((Attackable) object).getAI();
+			if (ai instanceof AttackableAI)
+			{
+				((AttackableAI) ai)._aggroScan = true;
+			}
+		}
+	}
+	
+	/**
+	 * @param npc the actor
+	 * @return True if the actor only aggroes playables, which notify it when they come near.
+	 */
+	private boolean hasProximityAggro(Attackable npc)
+	{
+		// Fake players, chaos monsters and guards hunting monsters also aggro non playable creatures.
+		return Config.PROXIMITY_AGGRO && !npc.isFakePlayer() && !npc.isChaos() && !((npc instanceof GuardInstance) && Config.GUARD_ATTACK_AGGRO_MOB);
 	}
 	
 	/**
@@ -165,6 +221,16 @@ public class AttackableAI extends CreatureAI
 	 * @return True if the target is autoattackable (depends on the actor type).
 	 */
 	private boolean autoAttackCondition(Creature target)
+	{
+		return autoAttackCondition(target, true);
+	}
+	
+	/**
+	 * @param target The targeted WorldObject
+	 * @param checkLos If false, line of sight is left to the caller.
+	 * @return True if the target is autoattackable (depends on the actor type).
+	 */
+	private boolean autoAttackCondition(Creature target, boolean checkLos)
 	{
 		if ((target == null) || (getActiveChar() == null))
 		{
@@ -220,7 +286,7 @@ public class AttackableAI extends CreatureAI
 				return false;
 			}
 			
-			if (Config.FACTION_SYSTEM_ENABLED && Config.FACTION_GUARDS_ENABLED && ((player.isGood() && ((Npc) _actor).getTemplate().isClan(Config.FACTION_EVIL_TEAM_NAME)) || (player.isEvil() && ((Npc) _actor).getTemplate().isClan(Config.FACTION_GOOD_TEAM_NAME))))
+			if (isFactionEnemy(player))
 			{
 				return true;
 			}
@@ -242,12 +308,12 @@ public class AttackableAI extends CreatureAI
 			// Check if the PlayerInstance target has karma (=PK)
 			if ((player != null) && (player.getKarma() > 0))
 			{
-				return GeoEngine.getInstance().canSeeTarget(me, player); // Los Check
+				return !checkLos || GeoEngine.getInstance().canSeeTarget(me, player); // Los Check
 			}
 			// Check if the MonsterInstance target is aggressive
 			if (target.isMonster() && Config.GUARD_ATTACK_AGGRO_MOB)
 			{
-				return (((MonsterInstance) target).isAggressive() && GeoEngine.getInstance().canSeeTarget(me, target));
+				return (((MonsterInstance) target).isAggressive() && (!checkLos || GeoEngine.getInstance().canSeeTarget(me, target)));
 			}
 			
 			return false;
@@ -263,7 +329,7 @@ public class AttackableAI extends CreatureAI
 			// Check if the PlayerInstance target has karma (=PK)
 			if (target.isPlayer() && (((PlayerInstance) target).getKarma() > 0))
 			{
-				return GeoEngine.getInstance().canSeeTarget(me, target); // Los Check
+				return !checkLos || GeoEngine.getInstance().canSeeTarget(me, target); // Los Check
 			}
 			return false;
 		}
@@ -283,7 +349,7 @@ public class AttackableAI extends CreatureAI
 						return false;
 					}
 					// Los Check
-					return GeoEngine.getInstance().canSeeTarget(me, target);
+					return !checkLos || GeoEngine.getInstance().canSeeTarget(me, target);
 				}
 			}
 			
@@ -305,10 +371,19 @@ public class AttackableAI extends CreatureAI
 			}
 			
 			// Check if the actor is Aggressive
-			return (me.isAggressive() && GeoEngine.getInstance().canSeeTarget(me, target));
+			return (me.isAggressive() && (!checkLos || GeoEngine.getInstance().canSeeTarget(me, target)));
 		}
 	}
 	
+	/**
+	 * @param player The player.
+	 * @return True if faction guards are enabled and the player is of the opposing faction of the actor.
+	 */
+	private boolean isFactionEnemy(PlayerInstance player)
+	{
+		return Config.FACTION_SYSTEM_ENABLED && Config.FACTION_GUARDS_ENABLED && ((player.isGood() && ((Npc) _actor).getTemplate().isClan(Config.FACTION_EVIL_TEAM_NAME)) || (player.isEvil() && ((Npc) _actor).getTemplate().isClan(Config.FACTION_GOOD_TEAM_NAME)));
+	}
+	
 	public void startAITask()
 	{
 		AttackableThinkTaskManager.getInstance().add(getActiveChar());
@@ -452,95 +527,129 @@ public class AttackableAI extends CreatureAI
 		// A Attackable isn't aggressive during 10s after its spawn because _globalAggro is set to -10
 		if (_globalAggro >= 0)
 		{
-			World.getInstance().forEachVisibleObject(npc, Creature.class, target ->
+			// Idle attackables only aggroing playables do not scan while no playable is near.
+			final boolean proximityAggro = hasProximityAggro(npc);
+			if (!proximityAggro || _aggroScan)
 			{
-				if ((target instanceof StaticObjectInstance))
+				if (proximityAggro)
 				{
-					return;
+					_aggroScan = false;
 				}
 				
-				if (npc.isFakePlayer() && npc.isAggressive())
+				// Targets passing all checks but line of sight, which is then checked for all of them at once.
+				final List<Creature> candidates = new ArrayList<>();
+				final List<Creature> targets = new ArrayList<>();
+				World.getInstance().forEachVisibleObject(npc, Creature.class, target ->
 				{
-					final List<ItemInstance> droppedItems = npc.getFakePlayerDrops();
-					if (droppedItems.isEmpty())
+					if ((target instanceof StaticObjectInstance))
+					{
+						return;
+					}
+					
+					// Keep scanning while a playable is near, it can become aggroable without moving (revived, visible again...).
+					if (proximityAggro && target.isPlayable() && npc.isInsideRadius2D(target, npc.getAggroRange() + AGGRO_SCAN_MARGIN))
+					{
+						_aggroScan = true;
+					}
+					
+					if (npc.isFakePlayer() && npc.isAggressive())
 					{
-						Creature nearestTarget = null;
-						double closestDistance = Double.MAX_VALUE;
-						for (Creature t : World.getInstance().getVisibleObjectsInRange(npc, Creature.class, npc.getAggroRange()))
+						final List<ItemInstance> droppedItems = npc.getFakePlayerDrops();
+						if (droppedItems.isEmpty())
 						{
-							if ((t == _actor) || (t == null) || t.isDead())
+							Creature nearestTarget = null;
+							double closestDistance = Double.MAX_VALUE;
+							for (Creature t : World.getInstance().getVisibleObjectsInRange(npc, Creature.class, npc.getAggroRange()))
 							{
-								continue;
-							}
-							if ((Config.FAKE_PLAYER_AGGRO_FPC && t.isFakePlayer()) //
-								|| (Config.FAKE_PLAYER_AGGRO_MONSTERS && t.isMonster() && !t.isFakePlayer()) //
-								|| (Config.FAKE_PLAYER_AGGRO_PLAYERS && t.isPlayer()))
-							{
-								final int hating = npc.getHating(t);
-								final double distance = npc.calculateDistance2D(t);
-								if ((hating == 0) && (closestDistance > distance))
+								if ((t == _actor) || (t == null) || t.isDead())
+								{
+									continue;
+								}
+								if ((Config.FAKE_PLAYER_AGGRO_FPC && t.isFakePlayer()) //
+									|| (Config.FAKE_PLAYER_AGGRO_MONSTERS && t.isMonster() && !t.isFakePlayer()) //
+									|| (Config.FAKE_PLAYER_AGGRO_PLAYERS && t.isPlayer()))
 								{
-									nearestTarget = t;
-									closestDistance = distance;
+									final int hating = npc.getHating(t);
+									final double distance = npc.calculateDistance2D(t);
+									if ((hating == 0) && (closestDistance > distance))
+									{
+										nearestTarget = t;
+										closestDistance = distance;
+									}
 								}
 							}
-						}
-						if (nearestTarget != null)
-						{
-							npc.addDamageHate(nearestTarget, 0, 1);
-						}
-					}
-					else if (!npc.isInCombat()) // must pickup items
-					{
-						final int itemIndex = npc.getFakePlayerDrops().size() - 1; // last item dropped - can also use 0 for first item dropped
-						final ItemInstance droppedItem = npc.getFakePlayerDrops().get(itemIndex);
-						if ((droppedItem != null) && droppedItem.isSpawned())
-						{
-							if (npc.calculateDistance2D(droppedItem) > 50)
+							if (nearestTarget != null)
 							{
-								moveTo(droppedItem);
+								npc.addDamageHate(nearestTarget, 0, 1);
 							}
-							else
+						}
+						else if (!npc.isInCombat()) // must pickup items
+						{
+							final int itemIndex = npc.getFakePlayerDrops().size() - 1; // last item dropped - can also use 0 for first item dropped
+							final ItemInstance droppedItem = npc.getFakePlayerDrops().get(itemIndex);
+							if ((droppedItem != null) && droppedItem.isSpawned())
 							{
-								npc.getFakePlayerDrops().remove(itemIndex);
-								droppedItem.pickupMe(npc);
-								if (Config.SAVE_DROPPED_ITEM)
+								if (npc.calculateDistance2D(droppedItem) > 50)
 								{
-									ItemsOnGroundManager.getInstance().removeObject(droppedItem);
+									moveTo(droppedItem);
 								}
-								if (droppedItem.getItem().hasExImmediateEffect())
+								else
 								{
-									for (SkillHolder skillHolder : droppedItem.getItem().getSkills())
+									npc.getFakePlayerDrops().remove(itemIndex);
+									droppedItem.pickupMe(npc);
+									if (Config.SAVE_DROPPED_ITEM)
 									{
-										npc.doSimultaneousCast(skillHolder.getSkill());
+										ItemsOnGroundManager.getInstance().removeObject(droppedItem);
+									}
+									if (droppedItem.getItem().hasExImmediateEffect())
+									{
+										for (SkillHolder skillHolder : droppedItem.getItem().getSkills())
+										{
+											npc.doSimultaneousCast(skillHolder.getSkill());
+										}
+										npc.broadcastInfo(); // ? check if this is necessary
 									}
-									npc.broadcastInfo(); // ? check if this is necessary
 								}
 							}
+							else
+							{
+								npc.getFakePlayerDrops().remove(itemIndex);
+							}
+							npc.setRunning();
 						}
-						else
+						return;
+					}
+					
+					/*
+					 * Check to see if this is a festival mob spawn. If it is, then check to see if the aggro trigger is a festival participant...if so, move to attack it.
+					 */
+					if ((npc instanceof FestivalMonsterInstance) && target.isPlayer())
+					{
+						final PlayerInstance targetPlayer = (PlayerInstance) target;
+						if (!(targetPlayer.isFestivalParticipant()))
 						{
-							npc.getFakePlayerDrops().remove(itemIndex);
+							return;
 						}
-						npc.setRunning();
 					}
-					return;
-				}
-				
-				/*
-				 * Check to see if this is a festival mob spawn. If it is, then check to see if the aggro trigger is a festival participant...if so, move to attack it.
-				 */
-				if ((npc instanceof FestivalMonsterInstance) && target.isPlayer())
-				{
-					final PlayerInstance targetPlayer = (PlayerInstance) target;
-					if (!(targetPlayer.isFestivalParticipant()))
+					
+					// For each Creature check if the target is autoattackable
+					if (autoAttackCondition(target, false)) // check aggression
 					{
-						return;
+						// Faction guards do not check line of sight.
+						final PlayerInstance player = target.getActingPlayer();
+						if ((player != null) && isFactionEnemy(player))
+						{
+							targets.add(target);
+						}
+						else
+						{
+							candidates.add(target);
+						}
 					}
-				}
+				});
 				
-				// For each Creature check if the target is autoattackable
-				if (autoAttackCondition(target)) // check aggression
+				targets.addAll(GeoEngine.getInstance().getVisibleTargets(npc, candidates));
+				for (Creature target : targets)
 				{
 					if (target.isFakePlayer())
 					{
@@ -552,14 +661,14 @@ public class AttackableAI extends CreatureAI
 								npc.addDamageHate(target, 0, 0);
 							}
 						}
-						return;
+						continue;
 					}
 					if (target.isPlayable())
 					{
 						final TerminateReturn term = EventDispatcher.getInstance().notifyEvent(new OnAttackableHate(getActiveChar(), target.getActingPlayer(), target.isSummon()), getActiveChar(), TerminateReturn.class);
 						if ((term != null) && term.terminate())
 						{
-							return;
+							continue;
 						}
 					}
 					
@@ -568,7 +677,8 @@ public class AttackableAI extends CreatureAI
 						npc.addDamageHate(target, 0, 0);
 					}
 				}
-			});
+				
+			}
 			
 			// Chose a target from its aggroList
 			final Creature hated = npc.isConfused() ? getAttackTarget() : npc.getMostHated();
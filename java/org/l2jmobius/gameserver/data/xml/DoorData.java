@@ -169,36 +169,55 @@ public class DoorData implements IXmlReader
 	
 	public boolean checkIfDoorsBetween(int x, int y, int z, int tx, int ty, int tz, int instanceId, boolean doubleFaceCheck)
 	{
-		final Collection<DoorInstance> doors;
+		return checkIfDoorsBetween(getDoors(x, y, instanceId), x, y, z, tx, ty, tz, doubleFaceCheck);
+	}
+	
+	/**
+	 * Doors are indexed by world region: each door is listed in its region and the surrounding ones, so only doors near the line origin are checked.<br>
+	 * These lists hold a few doors at most, which are then rejected by bounding box before the intersection test.
+	 * @param x : The X coordinate.
+	 * @param y : The Y coordinate.
+	 * @param instanceId : The instance id.
+	 * @return The doors which can block a line starting at given coordinates, or {@code null} if there is none.
+	 */
+	public Collection<DoorInstance> getDoors(int x, int y, int instanceId)
+	{
 		if (instanceId < 1)
 		{
 			final WorldRegion region = World.getInstance().getRegion(x, y);
-			if (region != null)
-			{
-				doors = region.getDoors();
-			}
-			else
-			{
-				doors = null;
-			}
-		}
-		else
-		{
-			final Instance instance = InstanceManager.getInstance().getInstance(instanceId);
-			if (instance != null)
-			{
-				doors = instance.getDoors();
-			}
-			else
-			{
-				doors = null;
-			}
+			return region != null ? region.getDoors() : null;
 		}
+		
+		final Instance instance = InstanceManager.getInstance().getInstance(instanceId);
+		return instance != null ? instance.getDoors() : null;
+	}
+	
+	/**
+	 * @param doors : The doors to check, given by {@link #getDoors(int, int, int)} for the line origin.
+	 * @param x : The line origin X coordinate.
+	 * @param y : The line origin Y coordinate.
+	 * @param z : The line origin Z coordinate.
+	 * @param tx : The line target X coordinate.
+	 * @param ty : The line target Y coordinate.
+	 * @param tz : The line target Z coordinate.
+	 * @param doubleFaceCheck : When true, the line must cross two faces of a door.
+	 * @return True, when a closed door is between origin and target.
+	 */
+	public boolean checkIfDoorsBetween(Collection<DoorInstance> doors, int x, int y, int z, int tx, int ty, int tz, boolean doubleFaceCheck)
+	{
 		if ((doors == null) || doors.isEmpty())
 		{
 			return false;
 		}
 		
+		// Bounds of the line.
+		final int xMin = Math.min(x, tx);
+		final int xMax = Math.max(x, tx);
+		final int yMin = Math.min(y, ty);
+		final int yMax = Math.max(y, ty);
+		final int zMin = Math.min(z, tz);
+		final int zMax = Math.max(z, tz);
+		
 		for (DoorInstance doorInst : doors)
 		{
 			// check dead and open
@@ -207,6 +226,12 @@ public class DoorData implements IXmlReader
 				continue;
 			}
 			
+			// Skip doors out of the line bounds.
+			if ((xMax < doorInst.getXMin()) || (xMin > doorInst.getXMax()) || (yMax < doorInst.getYMin()) || (yMin > doorInst.getYMax()) || (zMax <= doorInst.getZMin()) || (zMin >= doorInst.getZMax()))
+			{
+				continue;
+			}
+			
 			boolean intersectFace = false;
 			for (int i = 0; i < 4; i++)
 			{
@@ -27,6 +27,7 @@ import org.w3c.dom.Node;
 
 import org.l2jmobius.commons.util.IXmlReader;
 import org.l2jmobius.gameserver.enums.FenceState;
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
 import org.l2jmobius.gameserver.model.StatSet;
 import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.model.WorldRegion;
@@ -99,11 +100,13 @@ public class FenceData implements IXmlReader
 	private void addFence(FenceInstance fence)
 	{
 		_fences.put(fence.getObjectId(), fence);
+		GeoEngine.getInstance().onObstacleChange(fence.getInstanceId(), fence.getXMin(), fence.getYMin(), fence.getXMax(), fence.getYMax());
 	}
 	
 	public void removeFence(FenceInstance fence)
 	{
 		_fences.remove(fence.getObjectId());
+		GeoEngine.getInstance().onObstacleChange(fence.getInstanceId(), fence.getXMin(), fence.getYMin(), fence.getXMax(), fence.getYMax());
 	}
 	
 	public Map<Integer, FenceInstance> getFences()
@@ -117,9 +120,24 @@ public class FenceData implements IXmlReader
 	}
 	
 	public boolean checkIfFenceBetween(int x, int y, int z, int tx, int ty, int tz, int instanceId)
+	{
+		return checkIfFenceBetween(getFences(x, y), x, y, z, tx, ty, tz, instanceId);
+	}
+	
+	/**
+	 * Fences are indexed by world region: each fence is listed in its region and the surrounding ones, so only fences near the line origin are checked.
+	 * @param x : The X coordinate.
+	 * @param y : The Y coordinate.
+	 * @return The fences which can block a line starting at given coordinates, or {@code null} if there is none.
+	 */
+	public List<FenceInstance> getFences(int x, int y)
 	{
 		final WorldRegion region = World.getInstance().getRegion(x, y);
-		final List<FenceInstance> fences = region != null ? region.getFences() : null;
+		return region != null ? region.getFences() : null;
+	}
+	
+	public boolean checkIfFenceBetween(List<FenceInstance> fences, int x, int y, int z, int tx, int ty, int tz, int instanceId)
+	{
 		if ((fences == null) || fences.isEmpty())
 		{
 			return false;
@@ -0,0 +1,240 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.geoengine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.gameserver.enums.GeoType;
+import org.l2jmobius.gameserver.geoengine.geodata.BlockMapped;
+import org.l2jmobius.gameserver.geoengine.geodata.GeoStructure;
+
+/**
+ * Precompiled cache of the geodata region files, mapped lazily at startup instead of parsing the region files.<br>
+ * Each cache file contains a header, the block entries of the region and the data of its distinct blocks, identical blocks are stored once.<br>
+ * The header keeps the size and modification time of the region file, a cache file is rebuilt when its region file changes or when it does not pass the checks.<br>
+ * The checksum of the body is only verified right after a cache file is built and by the converter, so startup does not read every mapped page.
+ * @author Mobius
+ */
+public class GeoDataCache
+{
+	private static final Logger LOGGER = Logger.getLogger(GeoDataCache.class.getName());
+	
+	public static final String FILENAME = "%d_%d.l2c";
+	
+	private static final int MAGIC = 0x4347324C; // L2GC
+	private static final int VERSION = 1;
+	
+	// Magic, version, source size, source modification time, body size, body CRC32.
+	private static final int HEADER_SIZE = 32;
+	private static final int ENTRIES_SIZE = GeoStructure.REGION_BLOCKS * 4;
+	
+	private GeoDataCache()
+	{
+	}
+	
+	/**
+	 * @param regionX : Geodata file region X coordinate.
+	 * @param regionY : Geodata file region Y coordinate.
+	 * @return Path : The region file of the configured geodata type.
+	 */
+	public static Path getSourcePath(int regionX, int regionY)
+	{
+		return Config.GEODATA_PATH.resolve(String.format(Config.GEODATA_TYPE.getFilename(), regionX, regionY));
+	}
+	
+	/**
+	 * @param regionX : Geodata file region X coordinate.
+	 * @param regionY : Geodata file region Y coordinate.
+	 * @return Path : The cache file of the region.
+	 */
+	public static Path getCachePath(int regionX, int regionY)
+	{
+		return Config.GEODATA_CACHE_PATH.resolve(String.format(FILENAME, regionX, regionY));
+	}
+	
+	/**
+	 * Loads the cache file of a region, building it first when it is missing or outdated.
+	 * @param regionX : Geodata file region X coordinate.
+	 * @param regionY : Geodata file region Y coordinate.
+	 * @return BlockMapped : The block of the whole region.
+	 * @throws IOException : The cache file could not be built or read.
+	 */
+	public static BlockMapped loadRegion(int regionX, int regionY) throws IOException
+	{
+		final Path source = getSourcePath(regionX, regionY);
+		final Path cache = getCachePath(regionX, regionY);
+		
+		BlockMapped block = load(source, cache, false);
+		if (block == null)
+		{
+			build(source, cache, Config.GEODATA_TYPE);
+			block = load(source, cache, true);
+			if (block == null)
+			{
+				throw new IOException("Cache file " + cache + " is invalid after rebuilding.");
+			}
+		}
+		return block;
+	}
+	
+	/**
+	 * Maps a cache file and checks it against its region file.
+	 * @param source : The region file.
+	 * @param cache : The cache file.
+	 * @param verifyChecksum : When true, the checksum of the whole body is verified.
+	 * @return BlockMapped : The block of the whole region, or {@code null} when the cache file is missing, outdated or corrupted.
+	 * @throws IOException : The files could not be read.
+	 */
+	public static BlockMapped load(Path source, Path cache, boolean verifyChecksum) throws IOException
+	{
+		if (!Files.exists(cache))
+		{
+			return null;
+		}
+		
+		final MappedByteBuffer buffer;
+		try (FileChannel fc = FileChannel.open(cache, StandardOpenOption.READ))
+		{
+			// The mapping stays valid after the channel is closed.
+			buffer = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
+		}
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		
+		if ((buffer.capacity() < (HEADER_SIZE + ENTRIES_SIZE)) || (buffer.getInt(0) != MAGIC))
+		{
+			LOGGER.warning("GeoDataCache: " + cache.getFileName() + " is not a geodata cache file, rebuilding.");
+			return null;
+		}
+		if (buffer.getInt(4) != VERSION)
+		{
+			LOGGER.info("GeoDataCache: " + cache.getFileName() + " has an old version, rebuilding.");
+			return null;
+		}
+		if ((buffer.getLong(8) != Files.size(source)) || (buffer.getLong(16) != Files.getLastModifiedTime(source).toMillis()))
+		{
+			LOGGER.info("GeoDataCache: " + source.getFileName() + " has changed, rebuilding.");
+			return null;
+		}
+		if ((buffer.getInt(24) != (buffer.capacity() - HEADER_SIZE)) || (verifyChecksum && (buffer.getInt(28) != getChecksum(buffer))))
+		{
+			LOGGER.warning("GeoDataCache: " + cache.getFileName() + " is corrupted, rebuilding.");
+			return null;
+		}
+		
+		return new BlockMapped(buffer, HEADER_SIZE);
+	}
+	
+	/**
+	 * Builds the cache file of a region file.
+	 * @param source : The region file.
+	 * @param cache : The cache file, replaced when it exists.
+	 * @param type : The type of the region file.
+	 * @return int : The number of distinct blocks stored.
+	 * @throws IOException : The region file could not be read or the cache file could not be written.
+	 */
+	public static int build(Path source, Path cache, GeoType type) throws IOException
+	{
+		// Read the source file, its modification time is kept to detect later changes.
+		final long sourceSize = Files.size(source);
+		final long sourceModified = Files.getLastModifiedTime(source).toMillis();
+		final MappedByteBuffer buffer;
+		try (FileChannel fc = FileChannel.open(source, StandardOpenOption.READ))
+		{
+			buffer = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
+		}
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		
+		// Skip 18B header for L2OFF geodata.
+		if (type == GeoType.L2OFF)
+		{
+			buffer.position(18);
+		}
+		final BlockMapped region = new BlockMapped(buffer, type);
+		
+		// Store each distinct block once.
+		final int dataOffset = HEADER_SIZE + ENTRIES_SIZE;
+		final int[] entries = new int[GeoStructure.REGION_BLOCKS];
+		final Map<ByteBuffer, Integer> offsets = new HashMap<>();
+		final ByteArrayOutputStream data = new ByteArrayOutputStream();
+		for (int block = 0; block < GeoStructure.REGION_BLOCKS; block++)
+		{
+			final int blockType = region.getType(block);
+			final byte[] blockData = region.getData(block);
+			Integer offset = offsets.get(ByteBuffer.wrap(blockData));
+			if (offset == null)
+			{
+				offset = dataOffset + data.size();
+				offsets.put(ByteBuffer.wrap(blockData), offset);
+				data.write(blockData);
+			}
+			entries[block] = (blockType << BlockMapped.ENTRY_TYPE_SHIFT) | offset;
+		}
+		
+		// Write block entries and block data.
+		final ByteBuffer file = ByteBuffer.allocate(dataOffset + data.size()).order(ByteOrder.LITTLE_ENDIAN);
+		file.position(HEADER_SIZE);
+		for (int entry : entries)
+		{
+			file.putInt(entry);
+		}
+		file.put(data.toByteArray());
+		
+		// Write header.
+		file.putInt(0, MAGIC);
+		file.putInt(4, VERSION);
+		file.putLong(8, sourceSize);
+		file.putLong(16, sourceModified);
+		file.putInt(24, file.capacity() - HEADER_SIZE);
+		file.putInt(28, getChecksum(file));
+		
+		// Replace the cache file at once, so a failed build never leaves a partial file behind.
+		Files.createDirectories(cache.toAbsolutePath().getParent());
+		final Path temp = cache.resolveSibling(cache.getFileName() + ".tmp");
+		try (FileChannel fc = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			file.rewind();
+			while (file.hasRemaining())
+			{
+				fc.write(file);
+			}
+		}
+		Files.move(temp, cache, StandardCopyOption.REPLACE_EXISTING);
+		
+		return offsets.size();
+	}
+	
+	private static int getChecksum(ByteBuffer buffer)
+	{
+		final CRC32 crc = new CRC32();
+		crc.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+		return (int) crc.getValue();
+	}
+}
@@ -24,38 +24,73 @@ import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Logger;
 
 import org.l2jmobius.Config;
+import org.l2jmobius.commons.concurrent.ThreadPool;
+import org.l2jmobius.commons.util.Chronos;
 import org.l2jmobius.commons.util.CommonUtil;
 import org.l2jmobius.gameserver.data.xml.DoorData;
 import org.l2jmobius.gameserver.data.xml.FenceData;
 import org.l2jmobius.gameserver.enums.GeoType;
 import org.l2jmobius.gameserver.enums.MoveDirectionType;
+import org.l2jmobius.gameserver.geoengine.LineOfSightCache.LosKey;
 import org.l2jmobius.gameserver.geoengine.geodata.ABlock;
 import org.l2jmobius.gameserver.geoengine.geodata.BlockComplex;
 import org.l2jmobius.gameserver.geoengine.geodata.BlockFlat;
+import org.l2jmobius.gameserver.geoengine.geodata.BlockMapped;
 import org.l2jmobius.gameserver.geoengine.geodata.BlockMultilayer;
 import org.l2jmobius.gameserver.geoengine.geodata.BlockNull;
 import org.l2jmobius.gameserver.geoengine.geodata.GeoStructure;
+import org.l2jmobius.gameserver.geoengine.pathfinding.ClusterGraph;
 import org.l2jmobius.gameserver.geoengine.pathfinding.NodeBuffer;
+import org.l2jmobius.gameserver.geoengine.pathfinding.NodeBufferPool;
+import org.l2jmobius.gameserver.geoengine.pathfinding.PathCache;
+import org.l2jmobius.gameserver.geoengine.pathfinding.PathCache.PathKey;
 import org.l2jmobius.gameserver.model.Location;
 import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.model.WorldObject;
 import org.l2jmobius.gameserver.model.actor.Creature;
+import org.l2jmobius.gameserver.model.actor.instance.DoorInstance;
+import org.l2jmobius.gameserver.model.actor.instance.FenceInstance;
 
 public class GeoEngine
 {
 	protected static final Logger LOGGER = Logger.getLogger(GeoEngine.class.getName());
 	
+	private static final int REGIONS_Y = (World.TILE_Y_MAX - World.TILE_Y_MIN) + 1;
+	private static final int REGION_COUNT = ((World.TILE_X_MAX - World.TILE_X_MIN) + 1) * REGIONS_Y;
+	
 	private final ABlock[][] _blocks;
 	private final BlockNull _nullBlock;
 	
+	// Lazy loading, blocks of regions which are not loaded yet are null.
+	// Blocks only flag their region as used, the access time is updated from the flag on eviction checks.
+	private final long[] _regionAccess = new long[REGION_COUNT];
+	private final boolean[] _regionUsed = new boolean[REGION_COUNT];
+	private final long[] _regionSize = new long[REGION_COUNT];
+	private final boolean[] _regionLoaded = new boolean[REGION_COUNT];
+	private int _registeredRegions = 0;
+	private int _loadedRegions = 0;
+	private long _loadedSize = 0;
+	private final LongAdder _regionLoads = new LongAdder();
+	private final LongAdder _regionEvictions = new LongAdder();
+	
 	// Pre-allocated buffers.
-	private final BufferHolder[] _buffers;
+	private final NodeBufferPool _buffers;
+	
+	// Cached paths, null when disabled.
+	private final PathCache _pathCache;
+	
+	// Hierarchical pathfinding graph, null when disabled.
+	private final ClusterGraph _clusterGraph;
+	
+	// Cached line of sight results, null when disabled.
+	private final LineOfSightCache _losCache;
 	
 	public GeoEngine()
 	{
@@ -71,6 +106,7 @@ public class GeoEngine
 		BlockMultilayer.initialize();
 		
 		// Load geo files according to geoengine config setup.
+		final long startTime = System.currentTimeMillis();
 		int loaded = 0;
 		try
 		{
@@ -81,6 +117,14 @@ public class GeoEngine
 					final Path geoFilePath = Config.GEODATA_PATH.resolve(String.format(Config.GEODATA_TYPE.getFilename(), regionX, regionY));
 					if (Files.exists(geoFilePath))
 					{
+						// Region file is loaded the first time it is used.
+						if (Config.GEODATA_LAZY_LOAD)
+						{
+							_regionSize[getRegion(regionX - World.TILE_X_MIN, regionY - World.TILE_Y_MIN)] = Files.size(geoFilePath);
+							_registeredRegions++;
+							continue;
+						}
+						
 						// Region file is load-able, try to load it.
 						if (loadGeoBlocks(regionX, regionY))
 						{
@@ -100,32 +144,27 @@ public class GeoEngine
 			LOGGER.warning("GeoEngine: Failed to load geodata! " + e);
 			System.exit(1);
 		}
-		LOGGER.info("GeoEngine: Loaded " + loaded + " geodata files.");
-		
-		// Release multilayer block temporarily buffer.
-		BlockMultilayer.release();
-		
-		String[] array = Config.PATHFIND_BUFFERS.split(";");
-		_buffers = new BufferHolder[array.length];
-		
-		int count = 0;
-		for (int i = 0; i < array.length; i++)
+		if (Config.GEODATA_LAZY_LOAD)
 		{
-			String buf = array[i];
-			String[] args = buf.split("x");
+			LOGGER.info("GeoEngine: Registered " + _registeredRegions + " geodata files, loaded when used.");
+			loaded = _registeredRegions;
 			
-			try
-			{
-				int size = Integer.parseInt(args[1]);
-				count += size;
-				_buffers[i] = new BufferHolder(Integer.parseInt(args[0]), size);
-			}
-			catch (Exception e)
-			{
-				LOGGER.warning("Could not load buffer setting:" + buf + ". " + e);
-			}
+			// Evict idle regions.
+			ThreadPool.scheduleAtFixedRate(this::evictIdleRegions, 60000, 60000);
+		}
+		else
+		{
+			final Runtime runtime = Runtime.getRuntime();
+			LOGGER.info("GeoEngine: Loaded " + loaded + " " + (Config.GEODATA_CACHE ? "cached " : Config.GEODATA_MAPPED ? "mapped " : "") + "geodata files in " + (System.currentTimeMillis() - startTime) + " ms, used heap " + ((runtime.totalMemory() - runtime.freeMemory()) / 1048576) + " MB.");
+			
+			// Release multilayer block temporarily buffer.
+			BlockMultilayer.release();
 		}
-		LOGGER.info("Loaded " + count + " node buffers.");
+		
+		_buffers = new NodeBufferPool(Config.PATHFIND_BUFFERS);
+		_losCache = Config.LOS_CACHE_SIZE > 0 ? new LineOfSightCache(Config.LOS_CACHE_SIZE, Config.LOS_CACHE_TIME) : null;
+		_clusterGraph = Config.PATHFINDING && Config.PATHFIND_HIERARCHICAL ? new ClusterGraph(_buffers) : null;
+		_pathCache = Config.PATHFINDING && (Config.PATHFIND_CACHE_SIZE > 0) ? new PathCache(Config.PATHFIND_CACHE_SIZE, Config.PATHFIND_CACHE_TIME) : null;
 		
 		// Avoid wrong configs when no files are loaded.
 		if ((loaded == 0) && Config.PATHFINDING)
@@ -135,43 +174,6 @@ public class GeoEngine
 		}
 	}
 	
-	/**
-	 * Provides optimize selection of the buffer. When all pre-initialized buffer are locked, creates new buffer and log this situation.
-	 * @param size : pre-calculated minimal required size
-	 * @return NodeBuffer : buffer
-	 */
-	private NodeBuffer getBuffer(int size)
-	{
-		NodeBuffer current = null;
-		for (BufferHolder holder : _buffers)
-		{
-			// Find proper size of buffer.
-			if (holder._size < size)
-			{
-				continue;
-			}
-			
-			// Find unlocked NodeBuffer.
-			for (NodeBuffer buffer : holder._buffer)
-			{
-				if (!buffer.isLocked())
-				{
-					continue;
-				}
-				
-				return buffer;
-			}
-			
-			LOGGER.warning("Creating new NodeBuffer " + size + " size, as no buffer empty or out of size.");
-			
-			// NodeBuffer not found, allocate temporary buffer.
-			current = new NodeBuffer(holder._size);
-			current.isLocked();
-		}
-		
-		return current;
-	}
-	
 	/**
 	 * Loads geodata from a file. When file does not exist, is corrupted or not consistent, loads none geodata.
 	 * @param regionX : Geodata file region X coordinate.
@@ -183,12 +185,40 @@ public class GeoEngine
 		final String filename = String.format(Config.GEODATA_TYPE.getFilename(), regionX, regionY);
 		final String filepath = Config.GEODATA_PATH + File.separator + filename;
 		
+		// Cached load, falls back to the standard load when the cache file cannot be used.
+		if (Config.GEODATA_CACHE)
+		{
+			try
+			{
+				final BlockMapped block = GeoDataCache.loadRegion(regionX, regionY);
+				final int blockX = (regionX - World.TILE_X_MIN) * GeoStructure.REGION_BLOCKS_X;
+				final int blockY = (regionY - World.TILE_Y_MIN) * GeoStructure.REGION_BLOCKS_Y;
+				for (int ix = 0; ix < GeoStructure.REGION_BLOCKS_X; ix++)
+				{
+					for (int iy = 0; iy < GeoStructure.REGION_BLOCKS_Y; iy++)
+					{
+						_blocks[blockX + ix][blockY + iy] = block;
+					}
+				}
+				return true;
+			}
+			catch (Exception e)
+			{
+				LOGGER.warning("Error loading cache file of " + filename + " region file. " + e);
+			}
+		}
+		
 		// Standard load.
 		try (RandomAccessFile raf = new RandomAccessFile(filepath, "r");
 			FileChannel fc = raf.getChannel())
 		{
 			// Initialize file buffer.
-			MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size()).load();
+			// Mapped geodata is read from the file when needed, instead of being copied to the heap.
+			MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
+			if (!Config.GEODATA_MAPPED)
+			{
+				buffer.load();
+			}
 			buffer.order(ByteOrder.LITTLE_ENDIAN);
 			
 			// Load 18B header for L2OFF geodata (1st and 2nd byte...region X and Y).
@@ -204,62 +234,77 @@ public class GeoEngine
 			final int blockX = (regionX - World.TILE_X_MIN) * GeoStructure.REGION_BLOCKS_X;
 			final int blockY = (regionY - World.TILE_Y_MIN) * GeoStructure.REGION_BLOCKS_Y;
 			
-			// Loop over region blocks.
-			for (int ix = 0; ix < GeoStructure.REGION_BLOCKS_X; ix++)
+			// Use one shared block reading the mapped file.
+			if (Config.GEODATA_MAPPED)
 			{
-				for (int iy = 0; iy < GeoStructure.REGION_BLOCKS_Y; iy++)
+				final BlockMapped block = new BlockMapped(buffer, Config.GEODATA_TYPE);
+				for (int ix = 0; ix < GeoStructure.REGION_BLOCKS_X; ix++)
 				{
-					if (Config.GEODATA_TYPE == GeoType.L2J)
+					for (int iy = 0; iy < GeoStructure.REGION_BLOCKS_Y; iy++)
 					{
-						// Get block type.
-						final byte type = buffer.get();
-						
-						// Load block according to block type.
-						switch (type)
-						{
-							case GeoStructure.TYPE_FLAT_L2J_L2OFF:
-							{
-								_blocks[blockX + ix][blockY + iy] = new BlockFlat(buffer, Config.GEODATA_TYPE);
-								break;
-							}
-							case GeoStructure.TYPE_COMPLEX_L2J:
-							{
-								_blocks[blockX + ix][blockY + iy] = new BlockComplex(buffer);
-								break;
-							}
-							case GeoStructure.TYPE_MULTILAYER_L2J:
-							{
-								_blocks[blockX + ix][blockY + iy] = new BlockMultilayer(buffer, Config.GEODATA_TYPE);
-								break;
-							}
-							default:
-							{
-								throw new IllegalArgumentException("Unknown block type: " + type);
-							}
-						}
+						_blocks[blockX + ix][blockY + iy] = block;
 					}
-					else
+				}
+			}
+			else
+			{
+				// Loop over region blocks.
+				for (int ix = 0; ix < GeoStructure.REGION_BLOCKS_X; ix++)
+				{
+					for (int iy = 0; iy < GeoStructure.REGION_BLOCKS_Y; iy++)
 					{
-						// Get block type.
-						final short type = buffer.getShort();
-						
-						// Load block according to block type.
-						switch (type)
+						if (Config.GEODATA_TYPE == GeoType.L2J)
 						{
-							case GeoStructure.TYPE_FLAT_L2J_L2OFF:
-							{
-								_blocks[blockX + ix][blockY + iy] = new BlockFlat(buffer, Config.GEODATA_TYPE);
-								break;
-							}
-							case GeoStructure.TYPE_COMPLEX_L2OFF:
+							// Get block type.
+							final byte type = buffer.get();
+							
+							// Load block according to block type.
+							switch (type)
 							{
-								_blocks[blockX + ix][blockY + iy] = new BlockComplex(buffer);
-								break;
+								case GeoStructure.TYPE_FLAT_L2J_L2OFF:
+								{
+									_blocks[blockX + ix][blockY + iy] = new BlockFlat(buffer, Config.GEODATA_TYPE);
+									break;
+								}
+								case GeoStructure.TYPE_COMPLEX_L2J:
+								{
+									_blocks[blockX + ix][blockY + iy] = new BlockComplex(buffer);
+									break;
+								}
+								case GeoStructure.TYPE_MULTILAYER_L2J:
+								{
+									_blocks[blockX + ix][blockY + iy] = new BlockMultilayer(buffer, Config.GEODATA_TYPE);
+									break;
+								}
+								default:
+								{
+									throw new IllegalArgumentException("Unknown block type: " + type);
+								}
 							}
-							default:
+						}
+						else
+						{
+							// Get block type.
+							final short type = buffer.getShort();
+							
+							// Load block according to block type.
+							switch (type)
 							{
-								_blocks[blockX + ix][blockY + iy] = new BlockMultilayer(buffer, Config.GEODATA_TYPE);
-								break;
+								case GeoStructure.TYPE_FLAT_L2J_L2OFF:
+								{
+									_blocks[blockX + ix][blockY + iy] = new BlockFlat(buffer, Config.GEODATA_TYPE);
+									break;
+								}
+								case GeoStructure.TYPE_COMPLEX_L2OFF:
+								{
+									_blocks[blockX + ix][blockY + iy] = new BlockComplex(buffer);
+									break;
+								}
+								default:
+								{
+									_blocks[blockX + ix][blockY + iy] = new BlockMultilayer(buffer, Config.GEODATA_TYPE);
+									break;
+								}
 							}
 						}
 					}
@@ -288,6 +333,147 @@ public class GeoEngine
 		}
 	}
 	
+	/**
+	 * @param x : Region X index, starting from 0.
+	 * @param y : Region Y index, starting from 0.
+	 * @return int : The index of the region in the lazy loading arrays.
+	 */
+	private static int getRegion(int x, int y)
+	{
+		return (x * REGIONS_Y) + y;
+	}
+	
+	/**
+	 * Loads the region of a block, which was not loaded yet or was evicted.
+	 * @param x : Block X index.
+	 * @param y : Block Y index.
+	 * @return {@link ABlock} : The block, once its region is loaded.
+	 */
+	private synchronized ABlock loadRegion(int x, int y)
+	{
+		// Another thread may have loaded the region meanwhile.
+		if (_blocks[x][y] == null)
+		{
+			final int regionX = x / GeoStructure.REGION_BLOCKS_X;
+			final int regionY = y / GeoStructure.REGION_BLOCKS_Y;
+			final int region = getRegion(regionX, regionY);
+			
+			// On failure, null blocks are loaded and the region is not loaded again.
+			if (loadGeoBlocks(regionX + World.TILE_X_MIN, regionY + World.TILE_Y_MIN))
+			{
+				_regionAccess[region] = Chronos.currentTimeMillis();
+				_regionLoaded[region] = true;
+				_loadedRegions++;
+				_loadedSize += _regionSize[region];
+				_regionLoads.increment();
+				
+				// Evict the least recently used regions over the memory limit.
+				updateRegionAccess();
+				while ((Config.GEODATA_LAZY_MEMORY_LIMIT > 0) && (_loadedSize > Config.GEODATA_LAZY_MEMORY_LIMIT))
+				{
+					int oldest = -1;
+					for (int i = 0; i < REGION_COUNT; i++)
+					{
+						if (_regionLoaded[i] && (i != region) && ((oldest < 0) || (_regionAccess[i] < _regionAccess[oldest])))
+						{
+							oldest = i;
+						}
+					}
+					if (oldest < 0)
+					{
+						break;
+					}
+					unloadRegion(oldest);
+				}
+			}
+		}
+		return _blocks[x][y];
+	}
+	
+	/**
+	 * Sets the access time of regions used since the last update.
+	 */
+	private void updateRegionAccess()
+	{
+		final long currentTime = Chronos.currentTimeMillis();
+		for (int region = 0; region < REGION_COUNT; region++)
+		{
+			if (_regionUsed[region])
+			{
+				_regionUsed[region] = false;
+				_regionAccess[region] = currentTime;
+			}
+		}
+	}
+	
+	/**
+	 * Evicts regions not used for the configured idle time.
+	 */
+	private synchronized void evictIdleRegions()
+	{
+		updateRegionAccess();
+		
+		final long idleTime = Chronos.currentTimeMillis() - Config.GEODATA_LAZY_IDLE_TIME;
+		for (int region = 0; region < REGION_COUNT; region++)
+		{
+			if (_regionLoaded[region] && (_regionAccess[region] < idleTime))
+			{
+				unloadRegion(region);
+			}
+		}
+	}
+	
+	/**
+	 * Unloads a region, its blocks are loaded again when used.<br>
+	 * Threads still using the blocks keep them until they are done.
+	 * @param region : The index of the region.
+	 */
+	private void unloadRegion(int region)
+	{
+		final int blockX = (region / REGIONS_Y) * GeoStructure.REGION_BLOCKS_X;
+		final int blockY = (region % REGIONS_Y) * GeoStructure.REGION_BLOCKS_Y;
+		for (int ix = 0; ix < GeoStructure.REGION_BLOCKS_X; ix++)
+		{
+			for (int iy = 0; iy < GeoStructure.REGION_BLOCKS_Y; iy++)
+			{
+				_blocks[blockX + ix][blockY + iy] = null;
+			}
+		}
+		
+		_regionLoaded[region] = false;
+		_loadedRegions--;
+		_loadedSize -= _regionSize[region];
+		_regionEvictions.increment();
+	}
+	
+	public String[] getStats()
+	{
+		final List<String> stats = new ArrayList<>();
+		if (Config.GEODATA_LAZY_LOAD)
+		{
+			stats.add("Geodata:");
+			stats.add(" |- Loaded regions: " + _loadedRegions + " of " + _registeredRegions + " (" + (_loadedSize / 1048576) + " MB)");
+			stats.add(" |- Region loads: " + _regionLoads.sum() + ", Evictions: " + _regionEvictions.sum());
+		}
+		if (_losCache != null)
+		{
+			Collections.addAll(stats, _losCache.getStats());
+		}
+		if (Config.PATHFINDING)
+		{
+			Collections.addAll(stats, _buffers.getStats());
+			if (_pathCache != null)
+			{
+				Collections.addAll(stats, _pathCache.getStats());
+			}
+			if (_clusterGraph != null)
+			{
+				Collections.addAll(stats, _clusterGraph.getStats());
+			}
+		}
+		return stats.toArray(new String[stats.size()]);
+	}
+	
 	/**
 	 * Loads null blocks. Used when no region file is detected or an error occurs during loading.
 	 * @param regionX : Geodata file region X coordinate.
@@ -367,7 +553,25 @@ public class GeoEngine
 		{
 			return null;
 		}
-		return _blocks[x][y];
+		
+		final ABlock block = _blocks[x][y];
+		if (!Config.GEODATA_LAZY_LOAD)
+		{
+			return block;
+		}
+		
+		if (block == null)
+		{
+			return loadRegion(x, y);
+		}
+		
+		// Only written once per update of the access times, the flag is read otherwise.
+		final int region = getRegion(x / GeoStructure.REGION_BLOCKS_X, y / GeoStructure.REGION_BLOCKS_Y);
+		if (!_regionUsed[region])
+		{
+			_regionUsed[region] = true;
+		}
+		return block;
 	}
 	
 	/**
@@ -479,20 +683,108 @@ public class GeoEngine
 		}
 		
 		// Get object's and target's line of sight height (if relevant).
+		final double oheight = getLosHeight(object);
+		final double theight = getLosHeight(target);
+		
+		return canSeeBothWays(object.getX(), object.getY(), object.getZ(), oheight, target.getX(), target.getY(), target.getZ(), theight);
+	}
+	
+	/**
+	 * Check line of sight from {@link WorldObject} to each given target.<br>
+	 * Doors and fences near the object are looked up once for all targets.
+	 * @param <T> : The type of targets.
+	 * @param object : The origin object.
+	 * @param targets : The targets.
+	 * @return The targets object can see.
+	 */
+	public <T extends WorldObject> List<T> getVisibleTargets(WorldObject object, List<T> targets)
+	{
+		final List<T> result = new ArrayList<>(targets.size());
+		if (targets.isEmpty())
+		{
+			return result;
+		}
+		
+		final int ox = object.getX();
+		final int oy = object.getY();
+		final int oz = object.getZ();
+		final int instanceId = object.getInstanceId();
+		final double oheight = getLosHeight(object);
+		final Collection<DoorInstance> doors = DoorData.getInstance().getDoors(ox, oy, instanceId);
+		final List<FenceInstance> fences = FenceData.getInstance().getFences(ox, oy);
+		for (T target : targets)
+		{
+			// Can always see doors.
+			if (target.isDoor())
+			{
+				result.add(target);
+				continue;
+			}
+			
+			if (target.getInstanceId() != instanceId)
+			{
+				continue;
+			}
+			
+			final int tx = target.getX();
+			final int ty = target.getY();
+			final int tz = target.getZ();
+			if (DoorData.getInstance().checkIfDoorsBetween(doors, ox, oy, oz, tx, ty, tz, false) || FenceData.getInstance().checkIfFenceBetween(fences, ox, oy, oz, tx, ty, tz, instanceId))
+			{
+				continue;
+			}
+			
+			if (canSeeBothWays(ox, oy, oz, oheight, tx, ty, tz, getLosHeight(target)))
+			{
+				result.add(target);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * @param object : The object.
+	 * @return The line of sight height of the object, relative to its Z coordinate.
+	 */
+	private static double getLosHeight(WorldObject object)
+	{
 		// Note: real creature height = collision height * 2
-		double oheight = 0;
 		if (object instanceof Creature)
 		{
-			oheight += (((Creature) object).getTemplate().getCollisionHeight() * 2 * Config.PART_OF_CHARACTER_HEIGHT) / 100;
+			return (((Creature) object).getTemplate().getCollisionHeight() * 2 * Config.PART_OF_CHARACTER_HEIGHT) / 100;
+		}
+		return 0;
+	}
+	
+	/**
+	 * Geodata line of sight check in both directions, using the line of sight cache when enabled.
+	 * @param ox : Origin X coordinate.
+	 * @param oy : Origin Y coordinate.
+	 * @param oz : Origin Z coordinate.
+	 * @param oheight : Origin line of sight height.
+	 * @param tx : Target X coordinate.
+	 * @param ty : Target Y coordinate.
+	 * @param tz : Target Z coordinate.
+	 * @param theight : Target line of sight height.
+	 * @return True, when origin and target can see each other.
+	 */
+	private boolean canSeeBothWays(int ox, int oy, int oz, double oheight, int tx, int ty, int tz, double theight)
+	{
+		if (_losCache == null)
+		{
+			return canSee(ox, oy, oz, oheight, tx, ty, tz, theight) && canSee(tx, ty, tz, theight, ox, oy, oz, oheight);
 		}
 		
-		double theight = 0;
-		if (target instanceof Creature)
+		final LosKey key = new LosKey(getGeoX(ox), getGeoY(oy), oz, (int) oheight, getGeoX(tx), getGeoY(ty), tz, (int) theight);
+		final Boolean cached = _losCache.get(key);
+		if (cached != null)
 		{
-			theight += (((Creature) target).getTemplate().getCollisionHeight() * 2 * Config.PART_OF_CHARACTER_HEIGHT) / 100;
+			return cached;
 		}
 		
-		return canSee(object.getX(), object.getY(), object.getZ(), oheight, target.getX(), target.getY(), target.getZ(), theight) && canSee(target.getX(), target.getY(), target.getZ(), theight, object.getX(), object.getY(), object.getZ(), oheight);
+		final boolean result = canSee(ox, oy, oz, oheight, tx, ty, tz, theight) && canSee(tx, ty, tz, theight, ox, oy, oz, oheight);
+		_losCache.put(key, result);
+		return result;
 	}
 	
 	/**
@@ -947,95 +1239,160 @@ public class GeoEngine
 		
 		int gtz = getHeightNearest(gtx, gty, tz);
 		
-		// Prepare buffer for pathfinding calculations.
-		NodeBuffer buffer = getBuffer(300 + (10 * (Math.abs(gox - gtx) + Math.abs(goy - gty) + Math.abs(goz - gtz))));
-		if (buffer == null)
+		// Use the cached path, if any.
+		PathKey key = null;
+		int changes = 0;
+		if (_pathCache != null)
 		{
-			return Collections.emptyList();
+			key = new PathKey(gox, goy, goz, gtx, gty, gtz, instanceId);
+			final List<Location> path = _pathCache.get(key);
+			if (path != null)
+			{
+				return path;
+			}
+			changes = _pathCache.getChanges();
 		}
 		
-		// Find path.
 		List<Location> path = null;
-		try
+		int nodes = 0;
+		
+		// Long paths are searched over the cluster graph, unless both points are in the same cluster.
+		if ((_clusterGraph != null) && (Math.max(Math.abs(gox - gtx), Math.abs(goy - gty)) >= Config.PATHFIND_HIERARCHICAL_DISTANCE))
 		{
-			path = buffer.findPath(gox, goy, goz, gtx, gty, gtz);
-			if (path.isEmpty())
+			try
+			{
+				final int[] points = _clusterGraph.findPath(gox, goy, goz, gtx, gty, gtz);
+				if (points != null)
+				{
+					path = optimizePath(points, points.length / 3, ox, oy, goz, instanceId);
+				}
+			}
+			catch (Exception e)
 			{
 				return Collections.emptyList();
 			}
 		}
-		catch (Exception e)
+		
+		if (path == null)
 		{
-			return Collections.emptyList();
+			// Prepare buffer for pathfinding calculations.
+			NodeBuffer buffer = _buffers.acquire(300 + (10 * (Math.abs(gox - gtx) + Math.abs(goy - gty) + Math.abs(goz - gtz))));
+			if (buffer == null)
+			{
+				return Collections.emptyList();
+			}
+			
+			// Find path and optimize it, while the buffer holds the path points.
+			try
+			{
+				final int size = buffer.findPath(gox, goy, goz, gtx, gty, gtz);
+				path = optimizePath(buffer.getPath(), size, ox, oy, goz, instanceId);
+				nodes = buffer.getNodeCount();
+			}
+			catch (Exception e)
+			{
+				return Collections.emptyList();
+			}
+			finally
+			{
+				_buffers.release(buffer);
+			}
+		}
+		
+		// Cache the path, it is shared by all creatures using it.
+		if (_pathCache != null)
+		{
+			path = Collections.unmodifiableList(path);
+			_pathCache.put(key, path, nodes, changes);
 		}
-		finally
+		
+		return path;
+	}
+	
+	/**
+	 * Removes the path points which can be skipped by moving straight.
+	 * @param points : The path points, stored as x, y and z for each point.
+	 * @param size : The amount of path points.
+	 * @param ox : origin x
+	 * @param oy : origin y
+	 * @param goz : origin geodata z
+	 * @param instanceId
+	 * @return {@code List<Location>} : The optimized path.
+	 */
+	private List<Location> optimizePath(int[] points, int size, int ox, int oy, int goz, int instanceId)
+	{
+		if (size == 0)
 		{
-			buffer.free();
+			return Collections.emptyList();
 		}
 		
+		final List<Location> path = new ArrayList<>(size);
+		
 		// Check path.
-		if (path.size() < 3)
+		if (size < 3)
 		{
+			for (int i = 0; i < size; i++)
+			{
+				path.add(new Location(points[i * 3], points[(i * 3) + 1], points[(i * 3) + 2]));
+			}
 			return path;
 		}
 		
-		// Get path list iterator.
-		ListIterator<Location> point = path.listIterator();
-		
 		// Get node A (origin).
 		int nodeAx = ox;
 		int nodeAy = oy;
 		int nodeAz = goz;
 		
-		// Get node B.
-		Location nodeB = point.next();
-		
-		// Iterate thought the path to optimize it.
-		while (point.hasNext())
+		// Iterate thought the path to optimize it, node B being the current point and node C the next one.
+		for (int nodeB = 0; nodeB < (size - 1); nodeB++)
 		{
-			// Get node C.
-			Location nodeC = path.get(point.nextIndex());
-			
 			// Check movement from node A to node C.
-			if (canMoveToTarget(nodeAx, nodeAy, nodeAz, nodeC.getX(), nodeC.getY(), nodeC.getZ(), instanceId))
+			final int nodeC = nodeB + 1;
+			if (canMoveToTarget(nodeAx, nodeAy, nodeAz, points[nodeC * 3], points[(nodeC * 3) + 1], points[(nodeC * 3) + 2], instanceId))
 			{
 				// Can move from node A to node C.
-				// Remove node B.
-				point.remove();
-			}
-			else
-			{
-				// Can not move from node A to node C.
-				// Set node A (node B is part of path, update A coordinates).
-				nodeAx = nodeB.getX();
-				nodeAy = nodeB.getY();
-				nodeAz = nodeB.getZ();
+				// Skip node B.
+				continue;
 			}
 			
-			// Set node B.
-			nodeB = point.next();
+			// Can not move from node A to node C.
+			// Keep node B and set node A (node B is part of path, update A coordinates).
+			nodeAx = points[nodeB * 3];
+			nodeAy = points[(nodeB * 3) + 1];
+			nodeAz = points[(nodeB * 3) + 2];
+			path.add(new Location(nodeAx, nodeAy, nodeAz));
 		}
 		
+		// Add the last node.
+		path.add(new Location(points[(size - 1) * 3], points[((size - 1) * 3) + 1], points[((size - 1) * 3) + 2]));
 		return path;
 	}
 	
 	/**
-	 * NodeBuffer container with specified size and count of separate buffers.
+	 * Makes the cached paths crossing a door or fence stale. Called when the door or fence changes state.
+	 * @param instanceId : The instance id of the door or fence.
+	 * @param xMin : The minimum world x of the door or fence.
+	 * @param yMin : The minimum world y of the door or fence.
+	 * @param xMax : The maximum world x of the door or fence.
+	 * @param yMax : The maximum world y of the door or fence.
 	 */
-	private static class BufferHolder
+	public void onObstacleChange(int instanceId, int xMin, int yMin, int xMax, int yMax)
 	{
-		final int _size;
-		final List<NodeBuffer> _buffer;
-		
-		public BufferHolder(int size, int count)
+		if (_pathCache != null)
 		{
-			_size = size;
-			_buffer = new ArrayList<>(count);
-			
-			for (int i = 0; i < count; i++)
-			{
-				_buffer.add(new NodeBuffer(size));
-			}
+			_pathCache.invalidate(instanceId, getGeoX(xMin), getGeoY(yMin), getGeoX(xMax), getGeoY(yMax));
+		}
+	}
+	
+	/**
+	 * Drops the cached paths of an instance. Called when the instance is destroyed.
+	 * @param instanceId : The instance id.
+	 */
+	public void onInstanceDestroy(int instanceId)
+	{
+		if (_pathCache != null)
+		{
+			_pathCache.remove(instanceId);
 		}
 	}
 	
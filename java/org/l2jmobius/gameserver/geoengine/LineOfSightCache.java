@@ -0,0 +1,167 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.geoengine;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.l2jmobius.commons.concurrent.ThreadPool;
+import org.l2jmobius.gameserver.geoengine.geodata.GeoStructure;
+
+/**
+ * Bounded cache of geodata line of sight results, keyed by origin and target geodata cells, their height and the line of sight height of both sides.<br>
+ * Only geodata checks are cached. Geodata does not change, so entries just expire after a short time to keep the cache small. Doors and fences are checked on each call.<br>
+ * When full, the least recently used result is evicted.
+ * @author Mobius
+ */
+public class LineOfSightCache
+{
+	private final Map<LosKey, LosEntry> _results;
+	private final int _maxSize;
+	private final long _time;
+	
+	private final LongAdder _hits = new LongAdder();
+	private final LongAdder _misses = new LongAdder();
+	
+	/**
+	 * @param maxSize : The maximum amount of cached results.
+	 * @param time : The time in milliseconds a result is kept.
+	 */
+	public LineOfSightCache(int maxSize, long time)
+	{
+		_maxSize = maxSize;
+		_time = time;
+		_results = Collections.synchronizedMap(new LinkedHashMap<LosKey, LosEntry>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<LosKey, LosEntry> eldest)
+			{
+				return size() > _maxSize;
+			}
+		});
+		
+		ThreadPool.scheduleAtFixedRate(this::purge, time, time);
+	}
+	
+	/**
+	 * @param key : The line of sight key.
+	 * @return The cached result, or {@code null} when not cached or expired.
+	 */
+	public Boolean get(LosKey key)
+	{
+		final LosEntry entry = _results.get(key);
+		if ((entry == null) || (entry._expiration <= System.currentTimeMillis()))
+		{
+			_misses.increment();
+			return null;
+		}
+		
+		_hits.increment();
+		return entry._canSee;
+	}
+	
+	/**
+	 * @param key : The line of sight key.
+	 * @param canSee : The result.
+	 */
+	public void put(LosKey key, boolean canSee)
+	{
+		_results.put(key, new LosEntry(canSee, System.currentTimeMillis() + _time));
+	}
+	
+	/**
+	 * Removes expired results.
+	 */
+	private void purge()
+	{
+		final long currentTime = System.currentTimeMillis();
+		synchronized (_results)
+		{
+			_results.values().removeIf(e -> e._expiration <= currentTime);
+		}
+	}
+	
+	public String[] getStats()
+	{
+		final long hits = _hits.sum();
+		final long total = hits + _misses.sum();
+		return new String[]
+		{
+			"Line of sight cache:",
+			" |- Cached results: " + _results.size() + " of " + _maxSize,
+			" |- Hits: " + hits + " of " + total + " (" + (total == 0 ? 0 : (hits * 100) / total) + "%)"
+		};
+	}
+	
+	/**
+	 * Origin and target geodata cells, with their Z coordinate rounded to geodata cell height and their line of sight height.
+	 */
+	public static class LosKey
+	{
+		private final long _origin;
+		private final long _target;
+		
+		public LosKey(int gox, int goy, int oz, int oheight, int gtx, int gty, int tz, int theight)
+		{
+			_origin = pack(gox, goy, oz, oheight);
+			_target = pack(gtx, gty, tz, theight);
+		}
+		
+		private static long pack(int gx, int gy, int z, int height)
+		{
+			return ((long) gx << 48) | ((long) gy << 32) | ((long) ((z / GeoStructure.CELL_HEIGHT) & 0xFFFF) << 16) | (height & 0xFFFF);
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return (31 * Long.hashCode(_origin)) + Long.hashCode(_target);
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (!(obj instanceof LosKey))
+			{
+				return false;
+			}
+			
+			final LosKey key = (LosKey) obj;
+			return (_origin == key._origin) && (_target == key._target);
+		}
+	}
+	
+	private static class LosEntry
+	{
+		protected final boolean _canSee;
+		protected final long _expiration;
+		
+		protected LosEntry(boolean canSee, long expiration)
+		{
+			_canSee = canSee;
+			_expiration = expiration;
+		}
+	}
+}
\ No newline at end of file
@@ -20,7 +20,7 @@ import java.nio.ByteBuffer;
 
 public class BlockComplex extends ABlock
 {
-	protected byte[] _buffer;
+	protected final byte[] _buffer;
 	
 	/**
 	 * Implicit constructor for children class.
@@ -23,7 +23,7 @@ import org.l2jmobius.gameserver.enums.GeoType;
 public class BlockFlat extends ABlock
 {
 	protected final short _height;
-	protected byte _nswe;
+	protected final byte _nswe;
 	
 	/**
 	 * Creates FlatBlock.
@@ -0,0 +1,345 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.geoengine.geodata;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.l2jmobius.gameserver.enums.GeoType;
+
+/**
+ * Shared block of a whole region file, reading the geodata directly from the memory-mapped file.<br>
+ * For region files only the offset and the type of each block are kept on heap, cache files also contain them, cells are decoded from the file when queried.<br>
+ * Cell indexes are offsets inside the file, flat block indexes are flagged with {@link #FLAT_INDEX}.
+ */
+public class BlockMapped extends ABlock
+{
+	private static final int MAX_LAYERS = Byte.MAX_VALUE;
+	
+	public static final int TYPE_FLAT = 0;
+	public static final int TYPE_COMPLEX = 1;
+	public static final int TYPE_MULTILAYER = 2;
+	
+	/** Block entries hold the block type in the 2 upper bits and the offset of the block data in the others. */
+	public static final int ENTRY_TYPE_SHIFT = 30;
+	private static final int ENTRY_OFFSET_MASK = (1 << ENTRY_TYPE_SHIFT) - 1;
+	
+	private static final int FLAT_INDEX = 0x40000000;
+	
+	private final ByteBuffer _buffer;
+	private final int _layerCountSize;
+	private final int[] _entries;
+	private final int _entriesOffset;
+	
+	/**
+	 * Creates the block of a region file, indexing all its blocks.
+	 * @param bb : Input byte buffer, positioned on the first block. It must stay valid as long as the block is used.
+	 * @param type : The type of loaded geodata.
+	 */
+	public BlockMapped(ByteBuffer bb, GeoType type)
+	{
+		_buffer = bb;
+		_layerCountSize = type != GeoType.L2OFF ? 1 : 2;
+		_entries = new int[GeoStructure.REGION_BLOCKS];
+		_entriesOffset = -1;
+		
+		for (int block = 0; block < GeoStructure.REGION_BLOCKS; block++)
+		{
+			// Get block type.
+			final int blockType = type != GeoType.L2OFF ? bb.get() : bb.getShort();
+			if (blockType == GeoStructure.TYPE_FLAT_L2J_L2OFF)
+			{
+				_entries[block] = (TYPE_FLAT << ENTRY_TYPE_SHIFT) | bb.position();
+				bb.position(bb.position() + (type != GeoType.L2OFF ? 2 : 4));
+			}
+			else if (blockType == (type != GeoType.L2OFF ? GeoStructure.TYPE_COMPLEX_L2J : GeoStructure.TYPE_COMPLEX_L2OFF))
+			{
+				_entries[block] = (TYPE_COMPLEX << ENTRY_TYPE_SHIFT) | bb.position();
+				bb.position(bb.position() + (GeoStructure.BLOCK_CELLS * 2));
+			}
+			else if ((type == GeoType.L2OFF) || (blockType == GeoStructure.TYPE_MULTILAYER_L2J))
+			{
+				_entries[block] = (TYPE_MULTILAYER << ENTRY_TYPE_SHIFT) | bb.position();
+				
+				// Move buffer pointer to end of MultilayerBlock.
+				for (int cell = 0; cell < GeoStructure.BLOCK_CELLS; cell++)
+				{
+					final int layers = getLayers(bb.position());
+					if ((layers <= 0) || (layers > MAX_LAYERS))
+					{
+						throw new RuntimeException("Invalid layer count for MultilayerBlock");
+					}
+					bb.position(bb.position() + _layerCountSize + (layers * 2));
+				}
+			}
+			else
+			{
+				throw new IllegalArgumentException("Unknown block type: " + blockType);
+			}
+		}
+	}
+	
+	/**
+	 * Creates the block of a cache file, which already contains the block entries.<br>
+	 * Cache files use the L2J cell layout.
+	 * @param bb : Input byte buffer. It must stay valid as long as the block is used.
+	 * @param entriesOffset : The offset of the block entries inside the buffer.
+	 */
+	public BlockMapped(ByteBuffer bb, int entriesOffset)
+	{
+		_buffer = bb;
+		_layerCountSize = 1;
+		_entries = null;
+		_entriesOffset = entriesOffset;
+	}
+	
+	private int getEntry(int block)
+	{
+		return _entries != null ? _entries[block] : _buffer.getInt(_entriesOffset + (block * 4));
+	}
+	
+	/**
+	 * @param block : Block index inside the region.
+	 * @return int : The type of the block.
+	 */
+	public int getType(int block)
+	{
+		return getEntry(block) >>> ENTRY_TYPE_SHIFT;
+	}
+	
+	/**
+	 * Returns the data of a block in the L2J cell layout, without the block type.
+	 * @param block : Block index inside the region.
+	 * @return byte[] : The data of the block.
+	 */
+	public byte[] getData(int block)
+	{
+		final int entry = getEntry(block);
+		final int offset = entry & ENTRY_OFFSET_MASK;
+		switch (entry >>> ENTRY_TYPE_SHIFT)
+		{
+			case TYPE_FLAT:
+			{
+				final byte[] data = new byte[2];
+				_buffer.get(offset, data);
+				return data;
+			}
+			case TYPE_COMPLEX:
+			{
+				final byte[] data = new byte[GeoStructure.BLOCK_CELLS * 2];
+				_buffer.get(offset, data);
+				return data;
+			}
+			default:
+			{
+				final ByteBuffer data = ByteBuffer.allocate(GeoStructure.BLOCK_CELLS * ((MAX_LAYERS * 2) + 1));
+				int index = offset;
+				for (int cell = 0; cell < GeoStructure.BLOCK_CELLS; cell++)
+				{
+					final int layers = getLayers(index);
+					index += _layerCountSize;
+					data.put((byte) layers);
+					for (int layer = 0; layer < layers; layer++)
+					{
+						data.put(_buffer.get(index++));
+						data.put(_buffer.get(index++));
+					}
+				}
+				return Arrays.copyOf(data.array(), data.position());
+			}
+		}
+	}
+	
+	private int getLayers(int offset)
+	{
+		return _layerCountSize == 1 ? _buffer.get(offset) : (byte) _buffer.getShort(offset);
+	}
+	
+	private static int getBlock(int geoX, int geoY)
+	{
+		return (((geoX / GeoStructure.BLOCK_CELLS_X) % GeoStructure.REGION_BLOCKS_X) * GeoStructure.REGION_BLOCKS_Y) + ((geoY / GeoStructure.BLOCK_CELLS_Y) % GeoStructure.REGION_BLOCKS_Y);
+	}
+	
+	private static int getCell(int geoX, int geoY)
+	{
+		return ((geoX % GeoStructure.BLOCK_CELLS_X) * GeoStructure.BLOCK_CELLS_Y) + (geoY % GeoStructure.BLOCK_CELLS_Y);
+	}
+	
+	/**
+	 * @param block : Block index inside the region.
+	 * @param geoX : Cell geodata X coordinate.
+	 * @param geoY : Cell geodata Y coordinate.
+	 * @return int : Offset of the layer count of the cell inside a multilayer block.
+	 */
+	private int getMultilayerCell(int block, int geoX, int geoY)
+	{
+		int offset = getEntry(block) & ENTRY_OFFSET_MASK;
+		for (int i = getCell(geoX, geoY); i > 0; i--)
+		{
+			// Move offset by amount of layers for this cell.
+			offset += _layerCountSize + (getLayers(offset) * 2);
+		}
+		return offset;
+	}
+	
+	@Override
+	public boolean hasGeoPos()
+	{
+		return true;
+	}
+	
+	@Override
+	public short getHeightNearest(int geoX, int geoY, int worldZ)
+	{
+		return getHeight(getIndexNearest(geoX, geoY, worldZ));
+	}
+	
+	@Override
+	public byte getNsweNearest(int geoX, int geoY, int worldZ)
+	{
+		return getNswe(getIndexNearest(geoX, geoY, worldZ));
+	}
+	
+	@Override
+	public int getIndexNearest(int geoX, int geoY, int worldZ)
+	{
+		final int block = getBlock(geoX, geoY);
+		final int entry = getEntry(block);
+		switch (entry >>> ENTRY_TYPE_SHIFT)
+		{
+			case TYPE_FLAT:
+			{
+				return (entry & ENTRY_OFFSET_MASK) | FLAT_INDEX;
+			}
+			case TYPE_COMPLEX:
+			{
+				return (entry & ENTRY_OFFSET_MASK) + (getCell(geoX, geoY) * 2);
+			}
+			default:
+			{
+				// Get layers count and shift to first layer data.
+				int index = getMultilayerCell(block, geoX, geoY);
+				int layers = getLayers(index);
+				index += _layerCountSize;
+				
+				// Loop though all cell layers, find closest layer to given worldZ.
+				int limit = Integer.MAX_VALUE;
+				while (layers-- > 0)
+				{
+					// Get Z distance and compare with limit.
+					final int distance = Math.abs(getHeight(index) - worldZ);
+					if (distance > limit)
+					{
+						break;
+					}
+					
+					// Update limit and move to next layer.
+					limit = distance;
+					index += 2;
+				}
+				
+				// Return layer index.
+				return index - 2;
+			}
+		}
+	}
+	
+	@Override
+	public int getIndexAbove(int geoX, int geoY, int worldZ)
+	{
+		final int block = getBlock(geoX, geoY);
+		if (getType(block) != TYPE_MULTILAYER)
+		{
+			final int index = getIndexNearest(geoX, geoY, worldZ);
+			return getHeight(index) > worldZ ? index : -1;
+		}
+		
+		// Get layers count and shift to last layer data.
+		int index = getMultilayerCell(block, geoX, geoY);
+		int layers = getLayers(index);
+		index += _layerCountSize + ((layers - 1) * 2);
+		
+		// Loop though all layers, find first layer above worldZ.
+		while (layers-- > 0)
+		{
+			if (getHeight(index) > worldZ)
+			{
+				return index;
+			}
+			
+			// Move index to next layer.
+			index -= 2;
+		}
+		
+		// No layer found.
+		return -1;
+	}
+	
+	@Override
+	public int getIndexBelow(int geoX, int geoY, int worldZ)
+	{
+		final int block = getBlock(geoX, geoY);
+		if (getType(block) != TYPE_MULTILAYER)
+		{
+			final int index = getIndexNearest(geoX, geoY, worldZ);
+			return getHeight(index) < worldZ ? index : -1;
+		}
+		
+		// Get layers count and shift to first layer data.
+		int index = getMultilayerCell(block, geoX, geoY);
+		int layers = getLayers(index);
+		index += _layerCountSize;
+		
+		// Loop though all layers, find first layer below worldZ.
+		while (layers-- > 0)
+		{
+			if (getHeight(index) < worldZ)
+			{
+				return index;
+			}
+			
+			// Move index to next layer.
+			index += 2;
+		}
+		
+		// No layer found.
+		return -1;
+	}
+	
+	@Override
+	public short getHeight(int index)
+	{
+		if ((index & FLAT_INDEX) != 0)
+		{
+			return _buffer.getShort(index & ~FLAT_INDEX);
+		}
+		
+		// Height is stored in the upper 12 bits, in steps of 8.
+		return (short) ((short) (_buffer.getShort(index) & 0xFFF0) >> 1);
+	}
+	
+	@Override
+	public byte getNswe(int index)
+	{
+		if ((index & FLAT_INDEX) != 0)
+		{
+			return GeoStructure.CELL_FLAG_ALL;
+		}
+		
+		return (byte) (_buffer.getShort(index) & 0x000F);
+	}
+}
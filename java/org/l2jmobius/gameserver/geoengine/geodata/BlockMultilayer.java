@@ -46,7 +46,7 @@ public class BlockMultilayer extends ABlock
 		_temp = null;
 	}
 	
-	protected byte[] _buffer;
+	protected final byte[] _buffer;
 	
 	/**
 	 * Implicit constructor for children class.
@@ -0,0 +1,640 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.geoengine.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
+import org.l2jmobius.gameserver.geoengine.geodata.ABlock;
+import org.l2jmobius.gameserver.geoengine.geodata.GeoStructure;
+
+/**
+ * Hierarchical pathfinding (HPA*) graph.<br>
+ * Geodata is split into square clusters of blocks. Each passable opening on a cluster border gets a pair of abstract nodes, one at each side, linked together. The abstract nodes of a cluster are linked by the cost of the path between them inside the cluster.<br>
+ * Long paths are searched over the abstract nodes and then refined by A* searches limited to one cluster each. A cluster is built the first time a path goes through it, geodata does not change afterwards.
+ * @author Mobius
+ */
+public class ClusterGraph
+{
+	// Size of a cluster in geodata cells.
+	private static final int CLUSTER_CELLS = GeoStructure.BLOCK_CELLS_X * 4;
+	
+	private static final int[] EMPTY_PATH = new int[0];
+	
+	private final NodeBufferPool _buffers;
+	private final Map<Integer, Cluster> _clusters = new ConcurrentHashMap<>();
+	
+	private final LongAdder _searches = new LongAdder();
+	private final LongAdder _failures = new LongAdder();
+	private final LongAdder _expanded = new LongAdder();
+	
+	/**
+	 * @param buffers : The pool of buffers used to build clusters and refine paths.
+	 */
+	public ClusterGraph(NodeBufferPool buffers)
+	{
+		_buffers = buffers;
+	}
+	
+	/**
+	 * Find path over the clusters. Starts at origin coordinates, ends in target coordinates.
+	 * @param gox : origin point x
+	 * @param goy : origin point y
+	 * @param goz : origin point z
+	 * @param gtx : target point x
+	 * @param gty : target point y
+	 * @param gtz : target point z
+	 * @return The path points in world coordinates, stored as x, y and z for each point. Empty, if path not found. {@code null}, if both points are in the same cluster.
+	 */
+	public int[] findPath(int gox, int goy, int goz, int gtx, int gty, int gtz)
+	{
+		final int startCluster = getClusterId(gox, goy);
+		final int goalCluster = getClusterId(gtx, gty);
+		if (startCluster == goalCluster)
+		{
+			return null;
+		}
+		
+		_searches.increment();
+		
+		final NodeBuffer buffer = acquireBuffer();
+		try
+		{
+			final long startKey = getKey(gox, goy, goz);
+			final long goalKey = getKey(gtx, gty, gtz);
+			
+			// Link origin to the abstract nodes of its cluster.
+			final List<Edge> startEdges = new ArrayList<>();
+			for (AbstractNode node : getCluster(startCluster)._nodes.values())
+			{
+				final int cost = node._key == startKey ? 0 : getCost(buffer, gox, goy, goz, node._x, node._y, node._z, startCluster);
+				if (cost >= 0)
+				{
+					startEdges.add(new Edge(node._x, node._y, node._z, cost));
+				}
+			}
+			
+			// Link the abstract nodes of target cluster to the target.
+			final Map<Long, Integer> goalCosts = new HashMap<>();
+			for (AbstractNode node : getCluster(goalCluster)._nodes.values())
+			{
+				final int cost = node._key == goalKey ? 0 : getCost(buffer, node._x, node._y, node._z, gtx, gty, gtz, goalCluster);
+				if (cost >= 0)
+				{
+					goalCosts.put(node._key, cost);
+				}
+			}
+			
+			if (startEdges.isEmpty() || goalCosts.isEmpty())
+			{
+				_failures.increment();
+				return EMPTY_PATH;
+			}
+			
+			// Search the abstract path.
+			final List<SearchNode> abstractPath = findAbstractPath(new SearchNode(gox, goy, goz, 0, 0, null), startEdges, goalKey, goalCosts);
+			if (abstractPath.isEmpty())
+			{
+				_failures.increment();
+				return EMPTY_PATH;
+			}
+			
+			// Refine the abstract path.
+			int[] points = new int[abstractPath.size() * 12];
+			int size = 0;
+			for (int i = 1; i < abstractPath.size(); i++)
+			{
+				final SearchNode from = abstractPath.get(i - 1);
+				final SearchNode to = abstractPath.get(i);
+				
+				// Same cell, nothing to add.
+				final int distance = Math.abs(from._x - to._x) + Math.abs(from._y - to._y);
+				if (distance == 0)
+				{
+					continue;
+				}
+				
+				// Neighbor cells of two clusters, the move is direct.
+				if (distance == 1)
+				{
+					points = ensureCapacity(points, size + 1);
+					points[size * 3] = GeoEngine.getWorldX(to._x);
+					points[(size * 3) + 1] = GeoEngine.getWorldY(to._y);
+					points[(size * 3) + 2] = to._z;
+					size++;
+					continue;
+				}
+				
+				// Nodes are in the same cluster, search the path inside it.
+				final int count = searchInCluster(buffer, from._x, from._y, from._z, to._x, to._y, to._z, getClusterId(from._x, from._y));
+				if (count == 0)
+				{
+					_failures.increment();
+					return EMPTY_PATH;
+				}
+				points = ensureCapacity(points, size + count);
+				System.arraycopy(buffer.getPath(), 0, points, size * 3, count * 3);
+				size += count;
+				buffer.free();
+			}
+			
+			return Arrays.copyOf(points, size * 3);
+		}
+		finally
+		{
+			_buffers.release(buffer);
+		}
+	}
+	
+	/**
+	 * Search the path over abstract nodes.
+	 * @param start : The origin node.
+	 * @param startEdges : The links of origin node to the abstract nodes of its cluster.
+	 * @param goalKey : The key of the target node.
+	 * @param goalCosts : The costs of the abstract nodes of target cluster to the target node.
+	 * @return The nodes of the path, from origin to target. Empty, if path not found.
+	 */
+	private List<SearchNode> findAbstractPath(SearchNode start, List<Edge> startEdges, long goalKey, Map<Long, Integer> goalCosts)
+	{
+		final int gtx = (int) (goalKey >>> 40);
+		final int gty = (int) ((goalKey >>> 16) & 0xFFFFFF);
+		final int gtz = (short) goalKey;
+		
+		final PriorityQueue<SearchNode> opened = new PriorityQueue<>();
+		final Map<Long, SearchNode> known = new HashMap<>();
+		opened.add(start);
+		
+		int count = 0;
+		SearchNode current;
+		while (((current = opened.poll()) != null) && (++count < Config.MAX_ITERATIONS))
+		{
+			// Skip nodes already reached through a cheaper path.
+			if (current._closed || ((current != start) && (known.get(current._key) != current)))
+			{
+				continue;
+			}
+			current._closed = true;
+			_expanded.increment();
+			
+			// Target reached, construct the path.
+			if (current._key == goalKey)
+			{
+				final List<SearchNode> path = new ArrayList<>();
+				while (current != null)
+				{
+					path.add(current);
+					current = current._parent;
+				}
+				Collections.reverse(path);
+				return path;
+			}
+			
+			// Get links of the node.
+			final List<Edge> edges;
+			if (current == start)
+			{
+				edges = startEdges;
+			}
+			else
+			{
+				final AbstractNode node = getCluster(getClusterId(current._x, current._y))._nodes.get(current._key);
+				if (node == null)
+				{
+					continue;
+				}
+				edges = node._edges;
+				
+				// Link to the target.
+				final Integer goalCost = goalCosts.get(current._key);
+				if (goalCost != null)
+				{
+					addSearchNode(opened, known, current, gtx, gty, gtz, goalCost, gtx, gty, gtz);
+				}
+			}
+			
+			for (Edge edge : edges)
+			{
+				addSearchNode(opened, known, current, edge._x, edge._y, edge._z, edge._cost, gtx, gty, gtz);
+			}
+		}
+		
+		return Collections.emptyList();
+	}
+	
+	private void addSearchNode(PriorityQueue<SearchNode> opened, Map<Long, SearchNode> known, SearchNode parent, int x, int y, int z, int cost, int gtx, int gty, int gtz)
+	{
+		final int costG = parent._costG + cost;
+		final long key = getKey(x, y, z);
+		final SearchNode node = known.get(key);
+		if ((node != null) && (node._closed || (node._costG <= costG)))
+		{
+			return;
+		}
+		
+		final SearchNode added = new SearchNode(x, y, z, costG, costG + getCostH(x, y, z, gtx, gty, gtz), parent);
+		known.put(key, added);
+		opened.add(added);
+	}
+	
+	/**
+	 * @param clusterId : The cluster id.
+	 * @return The cluster, built when used for the first time.
+	 */
+	private Cluster getCluster(int clusterId)
+	{
+		Cluster cluster = _clusters.get(clusterId);
+		if (cluster == null)
+		{
+			cluster = buildCluster(clusterId);
+			final Cluster existing = _clusters.putIfAbsent(clusterId, cluster);
+			if (existing != null)
+			{
+				cluster = existing;
+			}
+		}
+		return cluster;
+	}
+	
+	/**
+	 * Creates abstract nodes for the openings on cluster borders and links them by the paths inside the cluster.
+	 * @param clusterId : The cluster id.
+	 * @return The cluster.
+	 */
+	private Cluster buildCluster(int clusterId)
+	{
+		final int minX = getMinX(clusterId);
+		final int minY = getMinY(clusterId);
+		final int maxX = getMaxX(clusterId);
+		final int maxY = getMaxY(clusterId);
+		
+		final Map<Long, AbstractNode> nodes = new LinkedHashMap<>();
+		
+		// West border.
+		if (minX > 0)
+		{
+			for (int[] pair : scanBorder(minX - 1, minY, maxY - minY + 1, true))
+			{
+				addTransition(nodes, pair[3], pair[4], pair[5], pair[0], pair[1], pair[2]);
+			}
+		}
+		
+		// East border.
+		if (maxX < (GeoStructure.GEO_CELLS_X - 1))
+		{
+			for (int[] pair : scanBorder(maxX, minY, maxY - minY + 1, true))
+			{
+				addTransition(nodes, pair[0], pair[1], pair[2], pair[3], pair[4], pair[5]);
+			}
+		}
+		
+		// North border.
+		if (minY > 0)
+		{
+			for (int[] pair : scanBorder(minX, minY - 1, maxX - minX + 1, false))
+			{
+				addTransition(nodes, pair[3], pair[4], pair[5], pair[0], pair[1], pair[2]);
+			}
+		}
+		
+		// South border.
+		if (maxY < (GeoStructure.GEO_CELLS_Y - 1))
+		{
+			for (int[] pair : scanBorder(minX, maxY, maxX - minX + 1, false))
+			{
+				addTransition(nodes, pair[0], pair[1], pair[2], pair[3], pair[4], pair[5]);
+			}
+		}
+		
+		// Link abstract nodes inside the cluster.
+		final List<AbstractNode> list = new ArrayList<>(nodes.values());
+		final NodeBuffer buffer = acquireBuffer();
+		try
+		{
+			for (int i = 0; i < list.size(); i++)
+			{
+				final AbstractNode a = list.get(i);
+				for (int j = i + 1; j < list.size(); j++)
+				{
+					final AbstractNode b = list.get(j);
+					final int cost = getCost(buffer, a._x, a._y, a._z, b._x, b._y, b._z, clusterId);
+					if (cost >= 0)
+					{
+						a._edges.add(new Edge(b._x, b._y, b._z, cost));
+						b._edges.add(new Edge(a._x, a._y, a._z, cost));
+					}
+				}
+			}
+		}
+		finally
+		{
+			_buffers.release(buffer);
+		}
+		
+		return new Cluster(nodes);
+	}
+	
+	/**
+	 * Adds the abstract node inside the cluster and links it to the abstract node of the neighbor cluster.
+	 * @param nodes : The abstract nodes of the cluster.
+	 * @param x : The inside node geodata X coordinate.
+	 * @param y : The inside node geodata Y coordinate.
+	 * @param z : The inside node geodata Z coordinate.
+	 * @param nx : The outside node geodata X coordinate.
+	 * @param ny : The outside node geodata Y coordinate.
+	 * @param nz : The outside node geodata Z coordinate.
+	 */
+	private void addTransition(Map<Long, AbstractNode> nodes, int x, int y, int z, int nx, int ny, int nz)
+	{
+		final AbstractNode node = nodes.computeIfAbsent(getKey(x, y, z), k -> new AbstractNode(x, y, z));
+		node._edges.add(new Edge(nx, ny, nz, Config.MOVE_WEIGHT));
+	}
+	
+	/**
+	 * Finds openings on a border between two clusters. Each opening is a run of neighbor passable cells with similar height, represented by its middle cell.
+	 * @param x : The geodata X coordinate of the first cell on the west or north side.
+	 * @param y : The geodata Y coordinate of the first cell on the west or north side.
+	 * @param length : The length of the border in cells.
+	 * @param vertical : {@code true} for a border between west and east clusters, {@code false} for a border between north and south clusters.
+	 * @return The openings, each given as the west or north cell (x, y, z) followed by the east or south cell (x, y, z).
+	 */
+	private List<int[]> scanBorder(int x, int y, int length, boolean vertical)
+	{
+		final List<int[]> result = new ArrayList<>();
+		List<List<int[]>> runs = new ArrayList<>();
+		for (int i = 0; i < length; i++)
+		{
+			final int ax = vertical ? x : x + i;
+			final int ay = vertical ? y + i : y;
+			final int bx = vertical ? ax + 1 : ax;
+			final int by = vertical ? ay : ay + 1;
+			
+			// Extend the runs of previous cell, close those not extended.
+			final List<List<int[]>> extended = new ArrayList<>();
+			for (int[] pair : getPassablePairs(ax, ay, bx, by, vertical))
+			{
+				List<int[]> run = null;
+				for (List<int[]> open : runs)
+				{
+					final int[] last = open.get(open.size() - 1);
+					if ((Math.abs(last[2] - pair[2]) <= GeoStructure.CELL_IGNORE_HEIGHT) && (Math.abs(last[5] - pair[5]) <= GeoStructure.CELL_IGNORE_HEIGHT))
+					{
+						run = open;
+						break;
+					}
+				}
+				if (run != null)
+				{
+					runs.remove(run);
+				}
+				else
+				{
+					run = new ArrayList<>();
+				}
+				run.add(pair);
+				extended.add(run);
+			}
+			
+			for (List<int[]> closed : runs)
+			{
+				result.add(closed.get(closed.size() / 2));
+			}
+			runs = extended;
+		}
+		
+		for (List<int[]> closed : runs)
+		{
+			result.add(closed.get(closed.size() / 2));
+		}
+		return result;
+	}
+	
+	/**
+	 * @param ax : The west or north cell geodata X coordinate.
+	 * @param ay : The west or north cell geodata Y coordinate.
+	 * @param bx : The east or south cell geodata X coordinate.
+	 * @param by : The east or south cell geodata Y coordinate.
+	 * @param vertical : {@code true} when cells are west and east, {@code false} when north and south.
+	 * @return The layers of both cells allowing to move from one to the other, given as (ax, ay, az, bx, by, bz).
+	 */
+	private List<int[]> getPassablePairs(int ax, int ay, int bx, int by, boolean vertical)
+	{
+		final List<int[]> pairs = new ArrayList<>(1);
+		final ABlock blockA = GeoEngine.getInstance().getBlock(ax, ay);
+		final ABlock blockB = GeoEngine.getInstance().getBlock(bx, by);
+		if (!blockA.hasGeoPos() || !blockB.hasGeoPos())
+		{
+			return pairs;
+		}
+		
+		final byte flagA = vertical ? GeoStructure.CELL_FLAG_E : GeoStructure.CELL_FLAG_S;
+		final byte flagB = vertical ? GeoStructure.CELL_FLAG_W : GeoStructure.CELL_FLAG_N;
+		
+		// Loop through all layers of cell A, from top to bottom.
+		int index = blockA.getIndexBelow(ax, ay, Short.MAX_VALUE);
+		while (index >= 0)
+		{
+			final int az = blockA.getHeight(index);
+			if ((blockA.getNswe(index) & flagA) != 0)
+			{
+				// Note: Z coord shifted up to avoid dual-layer issues.
+				final int indexB = blockB.getIndexBelow(bx, by, az + GeoStructure.CELL_IGNORE_HEIGHT);
+				if ((indexB >= 0) && ((blockB.getNswe(indexB) & flagB) != 0))
+				{
+					pairs.add(new int[]
+					{
+						ax,
+						ay,
+						az,
+						bx,
+						by,
+						blockB.getHeight(indexB)
+					});
+				}
+			}
+			index = blockA.getIndexBelow(ax, ay, az);
+		}
+		return pairs;
+	}
+	
+	/**
+	 * @return The movement cost of the path between given points inside the cluster, or -1 when there is no such path.
+	 */
+	private int getCost(NodeBuffer buffer, int gox, int goy, int goz, int gtx, int gty, int gtz, int clusterId)
+	{
+		final int cost = searchInCluster(buffer, gox, goy, goz, gtx, gty, gtz, clusterId) > 0 ? buffer.getPathCost() : -1;
+		buffer.free();
+		return cost;
+	}
+	
+	private int searchInCluster(NodeBuffer buffer, int gox, int goy, int goz, int gtx, int gty, int gtz, int clusterId)
+	{
+		return buffer.findPath(gox, goy, goz, gtx, gty, gtz, getMinX(clusterId), getMinY(clusterId), getMaxX(clusterId), getMaxY(clusterId));
+	}
+	
+	private NodeBuffer acquireBuffer()
+	{
+		// A search inside a cluster can not use more nodes than the cells (and their layers) of the cluster.
+		final int size = CLUSTER_CELLS * CLUSTER_CELLS * 2;
+		final NodeBuffer buffer = _buffers.acquire(size);
+		return buffer != null ? buffer : new NodeBuffer(size);
+	}
+	
+	private static int[] ensureCapacity(int[] points, int size)
+	{
+		return (size * 3) <= points.length ? points : Arrays.copyOf(points, Math.max(size * 3, points.length * 2));
+	}
+	
+	private static int getClusterId(int gx, int gy)
+	{
+		return ((gx / CLUSTER_CELLS) << 16) | (gy / CLUSTER_CELLS);
+	}
+	
+	private static int getMinX(int clusterId)
+	{
+		return (clusterId >>> 16) * CLUSTER_CELLS;
+	}
+	
+	private static int getMinY(int clusterId)
+	{
+		return (clusterId & 0xFFFF) * CLUSTER_CELLS;
+	}
+	
+	private static int getMaxX(int clusterId)
+	{
+		return Math.min(getMinX(clusterId) + CLUSTER_CELLS, GeoStructure.GEO_CELLS_X) - 1;
+	}
+	
+	private static int getMaxY(int clusterId)
+	{
+		return Math.min(getMinY(clusterId) + CLUSTER_CELLS, GeoStructure.GEO_CELLS_Y) - 1;
+	}
+	
+	private static long getKey(int gx, int gy, int gz)
+	{
+		return ((long) gx << 40) | ((long) gy << 16) | (gz & 0xFFFF);
+	}
+	
+	/**
+	 * Calculate cost H value, calculated using diagonal distance method, same as {@link NodeBuffer}.
+	 */
+	private static int getCostH(int gx, int gy, int gz, int gtx, int gty, int gtz)
+	{
+		final int dx = Math.abs(gx - gtx);
+		final int dy = Math.abs(gy - gty);
+		final int dz = Math.abs(gz - gtz) / GeoStructure.CELL_HEIGHT;
+		
+		final int dd = Math.min(dx, dy);
+		final int da = Math.max(dx, dy) - dd;
+		
+		return (dd * Config.HEURISTIC_WEIGHT_DIAG) + ((da + dz) * Config.HEURISTIC_WEIGHT);
+	}
+	
+	public String[] getStats()
+	{
+		return new String[]
+		{
+			"Hierarchical pathfinding:",
+			" |- Built clusters: " + _clusters.size(),
+			" |- Searches: " + _searches.sum() + ", Failed: " + _failures.sum() + ", Expanded abstract nodes: " + _expanded.sum()
+		};
+	}
+	
+	/**
+	 * Abstract nodes of a cluster, by their key.
+	 */
+	private static class Cluster
+	{
+		protected final Map<Long, AbstractNode> _nodes;
+		
+		protected Cluster(Map<Long, AbstractNode> nodes)
+		{
+			_nodes = nodes;
+		}
+	}
+	
+	private static class AbstractNode
+	{
+		protected final int _x;
+		protected final int _y;
+		protected final int _z;
+		protected final long _key;
+		protected final List<Edge> _edges = new ArrayList<>();
+		
+		protected AbstractNode(int x, int y, int z)
+		{
+			_x = x;
+			_y = y;
+			_z = z;
+			_key = getKey(x, y, z);
+		}
+	}
+	
+	private static class Edge
+	{
+		protected final int _x;
+		protected final int _y;
+		protected final int _z;
+		protected final int _cost;
+		
+		protected Edge(int x, int y, int z, int cost)
+		{
+			_x = x;
+			_y = y;
+			_z = z;
+			_cost = cost;
+		}
+	}
+	
+	private static class SearchNode implements Comparable<SearchNode>
+	{
+		protected final int _x;
+		protected final int _y;
+		protected final int _z;
+		protected final long _key;
+		protected final int _costG;
+		protected final int _costF;
+		protected final SearchNode _parent;
+		protected boolean _closed;
+		
+		protected SearchNode(int x, int y, int z, int costG, int costF, SearchNode parent)
+		{
+			_x = x;
+			_y = y;
+			_z = z;
+			_key = getKey(x, y, z);
+			_costG = costG;
+			_costF = costF;
+			_parent = parent;
+		}
+		
+		@Override
+		public int compareTo(SearchNode o)
+		{
+			return _costF - o._costF;
+		}
+	}
+}
\ No newline at end of file
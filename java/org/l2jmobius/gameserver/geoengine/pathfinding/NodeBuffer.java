@@ -17,32 +17,57 @@
 package org.l2jmobius.gameserver.geoengine.pathfinding;
 
 import java.awt.Color;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.PriorityQueue;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Arrays;
 
 import org.l2jmobius.Config;
 import org.l2jmobius.gameserver.geoengine.GeoEngine;
 import org.l2jmobius.gameserver.geoengine.geodata.ABlock;
 import org.l2jmobius.gameserver.geoengine.geodata.GeoStructure;
-import org.l2jmobius.gameserver.model.Location;
 import org.l2jmobius.gameserver.network.serverpackets.ExServerPrimitive;
 
+/**
+ * A* pathfinding buffer.<br>
+ * Nodes are kept in flat primitive arrays and referenced by their index. Opened nodes are kept in an indexed binary heap, which allows to lower the cost of an already opened node.<br>
+ * Nodes are found by their geodata coordinates through a hash table. Its entries are stamped with the search generation, so nothing has to be cleared between searches.
+ */
 public class NodeBuffer
 {
-	// Locking NodeBuffer to ensure thread-safe operations.
-	private final ReentrantLock _lock = new ReentrantLock();
+	private static final int NO_PARENT = -1;
+	private static final int CLOSED = -1;
+	
+	// Nodes, indexed by node id.
+	private final int[] _geoX;
+	private final int[] _geoY;
+	private final int[] _geoZ;
+	private final byte[] _nswe;
+	private final int[] _costG;
+	private final int[] _costF;
+	private final int[] _parent;
+	// Position of the node in the heap, CLOSED when already explored.
+	private final int[] _heapPosition;
+	private int _nodeCount;
+	
+	// Binary heap of node ids to be explored, ordered by cost F.
+	private final int[] _heap;
+	private int _heapSize;
+	
+	// Hash table of node ids by geodata coordinates. Entries are valid for the current generation only.
+	private final long[] _hashKeys;
+	private final int[] _hashNodes;
+	private final int[] _hashGenerations;
+	private final int _hashMask;
+	private int _generation;
 	
-	// Container holding all available Nodes to be used.
-	private final Node[] _buffer;
-	private int _bufferIndex;
-	// Container (binary-heap) holding Nodes to be explored.
-	private final PriorityQueue<Node> _opened;
-	// Container holding Nodes already explored.
-	private final List<Node> _closed;
+	// Path points in world coordinates (x, y, z).
+	private final int[] _path;
+	private int _pathSize;
+	private int _pathCost;
+	
+	// Search area in geodata coordinates.
+	private int _minX;
+	private int _minY;
+	private int _maxX;
+	private int _maxY;
 	
 	// Target coordinates.
 	private int _gtx;
@@ -53,61 +78,104 @@ public class NodeBuffer
 	private long _timeStamp;
 	private long _lastElapsedTime;
 	
-	private Node _current;
+	private int _current;
 	
 	/**
 	 * Constructor of NodeBuffer.
-	 * @param size : The total size buffer. Determines the amount of {@link Node}s to be used for pathfinding.
+	 * @param size : The total size buffer. Determines the amount of nodes to be used for pathfinding.
 	 */
 	public NodeBuffer(int size)
 	{
-		// Create buffers based on given size.
-		_buffer = new Node[size];
-		_opened = new PriorityQueue<>(size);
-		_closed = new ArrayList<>(size);
-		
-		// Create Nodes.
-		for (int i = 0; i < size; i++)
-		{
-			_buffer[i] = new Node();
-		}
+		_geoX = new int[size];
+		_geoY = new int[size];
+		_geoZ = new int[size];
+		_nswe = new byte[size];
+		_costG = new int[size];
+		_costF = new int[size];
+		_parent = new int[size];
+		_heapPosition = new int[size];
+		
+		_heap = new int[size];
+		
+		// Keep the hash table at most half full.
+		final int capacity = Integer.highestOneBit(Math.max(size, 1)) << 2;
+		_hashKeys = new long[capacity];
+		_hashNodes = new int[capacity];
+		_hashGenerations = new int[capacity];
+		_hashMask = capacity - 1;
+		
+		_path = new int[size * 3];
 	}
 	
 	/**
-	 * Find path consisting of Nodes. Starts at origin coordinates, ends in target coordinates.
+	 * Find path consisting of nodes. Starts at origin coordinates, ends in target coordinates.<br>
+	 * The path points are available through {@link #getPath()} until the buffer is freed.
 	 * @param gox : origin point x
 	 * @param goy : origin point y
 	 * @param goz : origin point z
 	 * @param gtx : target point x
 	 * @param gty : target point y
 	 * @param gtz : target point z
-	 * @return The list of {@link Location} for the path. Empty, if path not found.
+	 * @return The amount of points of the path. 0, if path not found.
 	 */
-	public List<Location> findPath(int gox, int goy, int goz, int gtx, int gty, int gtz)
+	public int findPath(int gox, int goy, int goz, int gtx, int gty, int gtz)
+	{
+		return findPath(gox, goy, goz, gtx, gty, gtz, 0, 0, GeoStructure.GEO_CELLS_X - 1, GeoStructure.GEO_CELLS_Y - 1);
+	}
+	
+	/**
+	 * Find path consisting of nodes, exploring only nodes inside given area. Starts at origin coordinates, ends in target coordinates.
+	 * @param gox : origin point x
+	 * @param goy : origin point y
+	 * @param goz : origin point z
+	 * @param gtx : target point x
+	 * @param gty : target point y
+	 * @param gtz : target point z
+	 * @param minX : lowest geodata X coordinate of the area
+	 * @param minY : lowest geodata Y coordinate of the area
+	 * @param maxX : highest geodata X coordinate of the area
+	 * @param maxY : highest geodata Y coordinate of the area
+	 * @return The amount of points of the path. 0, if path not found.
+	 */
+	public int findPath(int gox, int goy, int goz, int gtx, int gty, int gtz, int minX, int minY, int maxX, int maxY)
 	{
 		// Set start timestamp.
 		_timeStamp = System.currentTimeMillis();
 		
+		// Set search area.
+		_minX = minX;
+		_minY = minY;
+		_maxX = maxX;
+		_maxY = maxY;
+		
+		// Start a new generation, invalidating all hash table entries.
+		if (++_generation == 0)
+		{
+			Arrays.fill(_hashGenerations, 0);
+			_generation = 1;
+		}
+		
 		// Set target coordinates.
 		_gtx = gtx;
 		_gty = gty;
 		_gtz = gtz;
 		
-		// Get node from buffer.
-		_current = _buffer[_bufferIndex++];
-		
-		// Set node geodata coordinates and movement cost.
-		_current.setGeo(gox, goy, goz, GeoEngine.getInstance().getNsweNearest(gox, goy, goz));
-		_current.setCost(null, 0, getCostH(gox, goy, goz));
+		// Create the origin node and register it, so its neighbors find it closed instead of opening it again.
+		_current = createNode(gox, goy, goz, GeoEngine.getInstance().getNsweNearest(gox, goy, goz), NO_PARENT, 0);
+		final long key = getKey(gox, goy, goz);
+		final int slot = hash(key);
+		_hashKeys[slot] = key;
+		_hashNodes[slot] = _current;
+		_hashGenerations[slot] = _generation;
 		
 		int count = 0;
 		do
 		{
 			// Move node to closed list.
-			_closed.add(_current);
+			_heapPosition[_current] = CLOSED;
 			
 			// Target reached, calculate path and return.
-			if ((_current.getGeoX() == _gtx) && (_current.getGeoY() == _gty) && (_current.getZ() == _gtz))
+			if ((_geoX[_current] == _gtx) && (_geoY[_current] == _gty) && (_geoZ[_current] == _gtz))
 			{
 				return constructPath();
 			}
@@ -116,42 +184,44 @@ public class NodeBuffer
 			expand();
 			
 			// Get next node to expand.
-			_current = _opened.poll();
+			_current = poll();
 		}
-		while ((_current != null) && (_bufferIndex < _buffer.length) && (++count < Config.MAX_ITERATIONS));
+		while ((_current >= 0) && (_nodeCount < _geoX.length) && (++count < Config.MAX_ITERATIONS));
 		
 		// Iteration failed, return empty path.
-		return Collections.emptyList();
+		return 0;
 	}
 	
 	/**
 	 * Build the path from subsequent nodes. Skip nodes in straight directions, keep only corner nodes.
-	 * @return List of {@link Node}s representing the path.
+	 * @return The amount of points of the path.
 	 */
-	private List<Location> constructPath()
+	private int constructPath()
 	{
-		// Create result.
-		final LinkedList<Location> path = new LinkedList<>();
+		// Keep the movement cost of the path.
+		_pathCost = _costG[_current];
 		
 		// Clear X/Y direction.
 		int dx = 0;
 		int dy = 0;
 		
 		// Get parent node.
-		Node parent = _current.getParent();
+		int parent = _parent[_current];
 		
-		// While parent exists.
-		while (parent != null)
+		// While parent exists, add corner nodes from target to origin.
+		while (parent != NO_PARENT)
 		{
 			// Get parent node to current node X/Y direction.
-			final int nx = parent.getGeoX() - _current.getGeoX();
-			final int ny = parent.getGeoY() - _current.getGeoY();
+			final int nx = _geoX[parent] - _geoX[_current];
+			final int ny = _geoY[parent] - _geoY[_current];
 			
 			// Direction has changed?
 			if ((dx != nx) || (dy != ny))
 			{
-				// Add current node to the beginning of the path (Node must be cloned, as NodeBuffer reuses them).
-				path.addFirst(_current.clone());
+				final int index = _pathSize++ * 3;
+				_path[index] = GeoEngine.getWorldX(_geoX[_current]);
+				_path[index + 1] = GeoEngine.getWorldY(_geoY[_current]);
+				_path[index + 2] = _geoZ[_current];
 				
 				// Update X/Y direction.
 				dx = nx;
@@ -160,51 +230,74 @@ public class NodeBuffer
 			
 			// Move current node and update its parent.
 			_current = parent;
-			parent = _current.getParent();
+			parent = _parent[_current];
+		}
+		
+		// Reverse the path, so it starts at origin.
+		for (int i = 0, j = _pathSize - 1; i < j; i++, j--)
+		{
+			for (int k = 0; k < 3; k++)
+			{
+				final int temp = _path[(i * 3) + k];
+				_path[(i * 3) + k] = _path[(j * 3) + k];
+				_path[(j * 3) + k] = temp;
+			}
 		}
 		
-		return path;
+		return _pathSize;
 	}
 	
 	/**
-	 * Creates list of Nodes to show debug path.
+	 * @return The path points of the last search in world coordinates, stored as x, y and z for each point.
+	 */
+	public int[] getPath()
+	{
+		return _path;
+	}
+	
+	/**
+	 * @return The movement cost of the path of the last search.
+	 */
+	public int getPathCost()
+	{
+		return _pathCost;
+	}
+	
+	/**
+	 * Creates list of nodes to show debug path.
 	 * @param debug : The debug packet to add debug informations in.
 	 */
 	public void debugPath(ExServerPrimitive debug)
 	{
-		// Add all opened node as yellow points.
-		for (Node n : _opened)
-		{
-			debug.addPoint(String.valueOf(n.getCostF()), Color.YELLOW, true, n.getX(), n.getY(), n.getZ() - 16);
-		}
-		
-		// Add all opened node as blue points.
-		for (Node n : _closed)
+		// Add all opened nodes as yellow points and all closed nodes as blue points.
+		for (int node = 0; node < _nodeCount; node++)
 		{
-			debug.addPoint(String.valueOf(n.getCostF()), Color.BLUE, true, n.getX(), n.getY(), n.getZ() - 16);
+			debug.addPoint(String.valueOf(_costF[node]), _heapPosition[node] == CLOSED ? Color.BLUE : Color.YELLOW, true, GeoEngine.getWorldX(_geoX[node]), GeoEngine.getWorldY(_geoY[node]), _geoZ[node] - 16);
 		}
 	}
 	
-	public boolean isLocked()
+	public int getSize()
+	{
+		return _geoX.length;
+	}
+	
+	/**
+	 * @return The amount of nodes used by the last search, until the buffer is freed.
+	 */
+	public int getNodeCount()
 	{
-		return _lock.tryLock();
+		return _nodeCount;
 	}
 	
 	public void free()
 	{
-		_opened.clear();
-		_closed.clear();
-		
-		for (int i = 0; i < (_bufferIndex - 1); i++)
-		{
-			_buffer[i].clean();
-		}
-		_bufferIndex = 0;
-		
-		_current = null;
+		_nodeCount = 0;
+		_heapSize = 0;
+		_pathSize = 0;
+		_pathCost = 0;
+		_current = NO_PARENT;
 		
 		_lastElapsedTime = System.currentTimeMillis() - _timeStamp;
-		_lock.unlock();
 	}
 	
 	public long getElapsedTime()
@@ -213,12 +306,12 @@ public class NodeBuffer
 	}
 	
 	/**
-	 * Expand the current {@link Node} by exploring its neighbors (axially and diagonally).
+	 * Expand the current node by exploring its neighbors (axially and diagonally).
 	 */
 	private void expand()
 	{
 		// Movement is blocked, skip.
-		final byte nswe = _current.getNSWE();
+		final byte nswe = _nswe[_current];
 		if (nswe == GeoStructure.CELL_FLAG_NONE)
 		{
 			return;
@@ -226,9 +319,9 @@ public class NodeBuffer
 		
 		// Get geo coordinates of the node to be expanded.
 		// Note: Z coord shifted up to avoid dual-layer issues.
-		final int x = _current.getGeoX();
-		final int y = _current.getGeoY();
-		final int z = _current.getZ() + GeoStructure.CELL_IGNORE_HEIGHT;
+		final int x = _geoX[_current];
+		final int y = _geoY[_current];
+		final int z = _geoZ[_current] + GeoStructure.CELL_IGNORE_HEIGHT;
 		
 		byte nsweN = GeoStructure.CELL_FLAG_NONE;
 		byte nsweS = GeoStructure.CELL_FLAG_NONE;
@@ -285,7 +378,7 @@ public class NodeBuffer
 	}
 	
 	/**
-	 * Take {@link Node} from buffer, validate it and add to opened list.
+	 * Validate node at given coordinates and add it to opened list. When the node is already opened through a more expensive path, its cost is lowered.
 	 * @param gx : The new node X geodata coordinate.
 	 * @param gy : The new node Y geodata coordinate.
 	 * @param gzValue : The new node Z geodata coordinate.
@@ -294,14 +387,14 @@ public class NodeBuffer
 	 */
 	private byte addNode(int gx, int gy, int gzValue, int weight)
 	{
-		// Check new node is out of geodata grid (world coordinates).
-		if ((gx < 0) || (gx >= GeoStructure.GEO_CELLS_X) || (gy < 0) || (gy >= GeoStructure.GEO_CELLS_Y))
+		// Check new node is out of search area.
+		if ((gx < _minX) || (gx > _maxX) || (gy < _minY) || (gy > _maxY))
 		{
 			return GeoStructure.CELL_FLAG_NONE;
 		}
 		
 		// Check buffer has reached capacity.
-		if (_bufferIndex >= _buffer.length)
+		if (_nodeCount >= _geoX.length)
 		{
 			return GeoStructure.CELL_FLAG_NONE;
 		}
@@ -317,30 +410,147 @@ public class NodeBuffer
 		// Get node geodata Z and nswe.
 		final int gz = block.getHeight(index);
 		final byte nswe = block.getNswe(index);
+		final int costG = _costG[_current] + (nswe != GeoStructure.CELL_FLAG_ALL ? Config.OBSTACLE_WEIGHT : weight);
 		
-		// Get node from current index (don't move index yet).
-		Node node = _buffer[_bufferIndex];
-		
-		// Set node geodata coordinates.
-		node.setGeo(gx, gy, gz, nswe);
-		
-		// Node is already added to opened list, return.
-		if (_opened.contains(node))
+		// Find the node in the hash table.
+		final long key = getKey(gx, gy, gz);
+		int slot = hash(key);
+		while (_hashGenerations[slot] == _generation)
 		{
-			return nswe;
+			if (_hashKeys[slot] == key)
+			{
+				// Node is already known. Lower its cost when it is still opened and reached cheaper.
+				final int node = _hashNodes[slot];
+				final int position = _heapPosition[node];
+				if ((position != CLOSED) && (costG < _costG[node]))
+				{
+					_costF[node] -= _costG[node] - costG;
+					_costG[node] = costG;
+					_parent[node] = _current;
+					siftUp(position);
+				}
+				return nswe;
+			}
+			slot = (slot + 1) & _hashMask;
 		}
 		
-		// Node was already expanded, return.
-		if (_closed.contains(node))
+		// The node is to be used. Register it and add it to opened list.
+		final int node = createNode(gx, gy, gz, nswe, _current, costG);
+		_hashKeys[slot] = key;
+		_hashNodes[slot] = node;
+		_hashGenerations[slot] = _generation;
+		offer(node);
+		return nswe;
+	}
+	
+	/**
+	 * @param gx : The node geodata X coordinate.
+	 * @param gy : The node geodata Y coordinate.
+	 * @param gz : The node geodata Z coordinate.
+	 * @param nswe : The node nswe.
+	 * @param parent : The parent node id, {@link #NO_PARENT} for the origin node.
+	 * @param costG : The movement cost done to reach the node.
+	 * @return The id of the new node.
+	 */
+	private int createNode(int gx, int gy, int gz, byte nswe, int parent, int costG)
+	{
+		final int node = _nodeCount++;
+		_geoX[node] = gx;
+		_geoY[node] = gy;
+		_geoZ[node] = gz;
+		_nswe[node] = nswe;
+		_costG[node] = costG;
+		_costF[node] = costG + getCostH(gx, gy, gz);
+		_parent[node] = parent;
+		_heapPosition[node] = CLOSED;
+		return node;
+	}
+	
+	private static long getKey(int gx, int gy, int gz)
+	{
+		return ((long) gx << 40) | ((long) gy << 16) | (gz & 0xFFFF);
+	}
+	
+	private int hash(long key)
+	{
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & _hashMask;
+	}
+	
+	private void offer(int node)
+	{
+		_heap[_heapSize] = node;
+		_heapPosition[node] = _heapSize;
+		siftUp(_heapSize++);
+	}
+	
+	/**
+	 * @return The opened node with the lowest cost F, or -1 when there is none.
+	 */
+	private int poll()
+	{
+		if (_heapSize == 0)
 		{
-			return nswe;
+			return -1;
 		}
 		
-		// The node is to be used. Set node movement cost and add it to opened list. Move the buffer index.
-		node.setCost(_current, nswe != GeoStructure.CELL_FLAG_ALL ? Config.OBSTACLE_WEIGHT : weight, getCostH(gx, gy, gz));
-		_opened.add(node);
-		_bufferIndex++;
-		return nswe;
+		final int node = _heap[0];
+		final int last = _heap[--_heapSize];
+		if (_heapSize > 0)
+		{
+			_heap[0] = last;
+			_heapPosition[last] = 0;
+			siftDown(0);
+		}
+		return node;
+	}
+	
+	private void siftUp(int position)
+	{
+		final int node = _heap[position];
+		final int cost = _costF[node];
+		while (position > 0)
+		{
+			final int parentPosition = (position - 1) >>> 1;
+			final int parent = _heap[parentPosition];
+			if (_costF[parent] <= cost)
+			{
+				break;
+			}
+			
+			_heap[position] = parent;
+			_heapPosition[parent] = position;
+			position = parentPosition;
+		}
+		_heap[position] = node;
+		_heapPosition[node] = position;
+	}
+	
+	private void siftDown(int position)
+	{
+		final int node = _heap[position];
+		final int cost = _costF[node];
+		final int half = _heapSize >>> 1;
+		while (position < half)
+		{
+			int childPosition = (position << 1) + 1;
+			int child = _heap[childPosition];
+			final int rightPosition = childPosition + 1;
+			if ((rightPosition < _heapSize) && (_costF[_heap[rightPosition]] < _costF[child]))
+			{
+				childPosition = rightPosition;
+				child = _heap[childPosition];
+			}
+			if (cost <= _costF[child])
+			{
+				break;
+			}
+			
+			_heap[position] = child;
+			_heapPosition[child] = position;
+			position = childPosition;
+		}
+		_heap[position] = node;
+		_heapPosition[node] = position;
 	}
 	
 	/**
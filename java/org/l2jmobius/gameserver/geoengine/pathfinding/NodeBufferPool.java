@@ -0,0 +1,220 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.geoengine.pathfinding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Lock-free pool of {@link NodeBuffer}s, grouped by size class.<br>
+ * Each size class keeps its free buffers in an array of slots, taken and returned with compare-and-set. Threads start scanning the slots at a position of their own, so concurrent threads rarely compete for the same slot.<br>
+ * When a size class has no free buffer, a larger one is used. When none is free either, a new buffer is created and kept by the pool when released, up to twice the configured count. The pool stops allocating once it fits the load.
+ * @author Mobius
+ */
+public class NodeBufferPool
+{
+	private static final Logger LOGGER = Logger.getLogger(NodeBufferPool.class.getName());
+	
+	private final SizeClass[] _sizeClasses;
+	
+	private final LongAdder _hits = new LongAdder();
+	private final LongAdder _fallbacks = new LongAdder();
+	private final LongAdder _misses = new LongAdder();
+	private final LongAdder _discarded = new LongAdder();
+	private final LongAdder _contended = new LongAdder();
+	
+	/**
+	 * @param config : Size classes in the "sizexcount;sizexcount" format.
+	 */
+	public NodeBufferPool(String config)
+	{
+		final List<SizeClass> sizeClasses = new ArrayList<>();
+		int count = 0;
+		for (String buf : config.split(";"))
+		{
+			try
+			{
+				final String[] args = buf.split("x");
+				final int size = Integer.parseInt(args[0]);
+				final int buffers = Integer.parseInt(args[1]);
+				sizeClasses.add(new SizeClass(size, buffers));
+				count += buffers;
+			}
+			catch (Exception e)
+			{
+				LOGGER.warning("Could not load buffer setting:" + buf + ". " + e);
+			}
+		}
+		sizeClasses.sort((a, b) -> Integer.compare(a._size, b._size));
+		_sizeClasses = sizeClasses.toArray(new SizeClass[sizeClasses.size()]);
+		LOGGER.info("Loaded " + count + " node buffers.");
+	}
+	
+	/**
+	 * @param size : Minimal required size.
+	 * @return NodeBuffer : A buffer of at least the required size, or {@code null} when the size is over the largest size class. It must be returned with {@link #release(NodeBuffer)}.
+	 */
+	public NodeBuffer acquire(int size)
+	{
+		final int stripe = (int) Thread.currentThread().getId();
+		SizeClass fitting = null;
+		for (SizeClass sizeClass : _sizeClasses)
+		{
+			if (sizeClass._size < size)
+			{
+				continue;
+			}
+			
+			final NodeBuffer buffer = sizeClass.poll(stripe, _contended);
+			if (buffer != null)
+			{
+				if (fitting == null)
+				{
+					_hits.increment();
+				}
+				else
+				{
+					_fallbacks.increment();
+				}
+				return buffer;
+			}
+			
+			if (fitting == null)
+			{
+				fitting = sizeClass;
+			}
+		}
+		
+		if (fitting == null)
+		{
+			return null;
+		}
+		
+		// No free buffer, create one for the smallest fitting size class.
+		_misses.increment();
+		return new NodeBuffer(fitting._size);
+	}
+	
+	/**
+	 * Returns a buffer to the pool after use.
+	 * @param buffer : The buffer obtained from {@link #acquire(int)}.
+	 */
+	public void release(NodeBuffer buffer)
+	{
+		buffer.free();
+		
+		for (SizeClass sizeClass : _sizeClasses)
+		{
+			if (sizeClass._size == buffer.getSize())
+			{
+				if (!sizeClass.offer(buffer, (int) Thread.currentThread().getId()))
+				{
+					_discarded.increment();
+				}
+				return;
+			}
+		}
+	}
+	
+	public String[] getStats()
+	{
+		final String[] stats = new String[_sizeClasses.length + 3];
+		int pos = 0;
+		
+		stats[pos++] = "Pathfinding buffers:";
+		for (SizeClass sizeClass : _sizeClasses)
+		{
+			stats[pos++] = " |- Size " + sizeClass._size + ": Free " + sizeClass.getFreeCount() + " of " + sizeClass._slots.length() + " slots";
+		}
+		stats[pos++] = " |- Hits: " + _hits.sum() + ", Larger size: " + _fallbacks.sum() + ", Created: " + _misses.sum() + ", Discarded: " + _discarded.sum();
+		stats[pos++] = " |- Contended slots: " + _contended.sum();
+		
+		return stats;
+	}
+	
+	/**
+	 * Free buffers of one size.
+	 */
+	private static class SizeClass
+	{
+		protected final int _size;
+		protected final AtomicReferenceArray<NodeBuffer> _slots;
+		
+		protected SizeClass(int size, int count)
+		{
+			_size = size;
+			
+			// Extra slots keep the buffers created under load.
+			_slots = new AtomicReferenceArray<>(Math.max(1, count * 2));
+			for (int i = 0; i < count; i++)
+			{
+				_slots.set(i, new NodeBuffer(size));
+			}
+		}
+		
+		protected NodeBuffer poll(int stripe, LongAdder contended)
+		{
+			final int length = _slots.length();
+			for (int i = 0; i < length; i++)
+			{
+				final int index = Math.floorMod(stripe + i, length);
+				final NodeBuffer buffer = _slots.get(index);
+				if (buffer != null)
+				{
+					if (_slots.compareAndSet(index, buffer, null))
+					{
+						return buffer;
+					}
+					
+					// Another thread took this buffer first.
+					contended.increment();
+				}
+			}
+			return null;
+		}
+		
+		protected boolean offer(NodeBuffer buffer, int stripe)
+		{
+			final int length = _slots.length();
+			for (int i = 0; i < length; i++)
+			{
+				final int index = Math.floorMod(stripe + i, length);
+				if ((_slots.get(index) == null) && _slots.compareAndSet(index, null, buffer))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		protected int getFreeCount()
+		{
+			int count = 0;
+			for (int i = 0; i < _slots.length(); i++)
+			{
+				if (_slots.get(i) != null)
+				{
+					count++;
+				}
+			}
+			return count;
+		}
+	}
+}
@@ -0,0 +1,331 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.geoengine.pathfinding;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.l2jmobius.commons.concurrent.ThreadPool;
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
+import org.l2jmobius.gameserver.model.Location;
+
+/**
+ * Bounded cache of pathfinding results, keyed by origin and target geodata cells (including their layer) and instance.<br>
+ * Entries expire after a fixed time. The geodata of each instance is split in areas of 256x256 cells, each with a version raised when a door or fence inside changes state.<br>
+ * A path is stale once the version of an area within its bounds has changed, paths elsewhere stay cached.<br>
+ * When full, the least recently used path is evicted.
+ * @author Mobius
+ */
+public class PathCache
+{
+	private static final int AREA_SHIFT = 8; // Areas of 256 geodata cells.
+	
+	private final Map<PathKey, PathEntry> _paths;
+	private final Map<Long, AtomicInteger> _versions = new ConcurrentHashMap<>();
+	/** Raised on each obstacle change, a path whose areas were checked at the same count is still valid. */
+	private final AtomicInteger _changes = new AtomicInteger();
+	private final int _maxSize;
+	private final long _time;
+	
+	private final LongAdder _hits = new LongAdder();
+	private final LongAdder _misses = new LongAdder();
+	private final LongAdder _savedNodes = new LongAdder();
+	
+	/**
+	 * @param maxSize : The maximum amount of cached paths.
+	 * @param time : The time in milliseconds a path is kept.
+	 */
+	public PathCache(int maxSize, long time)
+	{
+		_maxSize = maxSize;
+		_time = time;
+		_paths = Collections.synchronizedMap(new LinkedHashMap<PathKey, PathEntry>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<PathKey, PathEntry> eldest)
+			{
+				return size() > _maxSize;
+			}
+		});
+		
+		ThreadPool.scheduleAtFixedRate(this::purge, time, time);
+	}
+	
+	/**
+	 * @param key : The path key.
+	 * @return The cached path, or {@code null} when not cached, expired or stale.
+	 */
+	public List<Location> get(PathKey key)
+	{
+		final PathEntry entry = _paths.get(key);
+		if ((entry == null) || !isValid(entry, key._instanceId, System.currentTimeMillis()))
+		{
+			_misses.increment();
+			return null;
+		}
+		
+		_hits.increment();
+		_savedNodes.add(entry._nodes);
+		return entry._path;
+	}
+	
+	/**
+	 * @return The current count of obstacle changes, to be given to {@link #put(PathKey, List, int, int)} for a path calculated from now on.
+	 */
+	public int getChanges()
+	{
+		return _changes.get();
+	}
+	
+	/**
+	 * Caches a path, unless an obstacle has changed during its search.
+	 * @param key : The path key.
+	 * @param path : The unmodifiable path.
+	 * @param nodes : The amount of nodes the search has used.
+	 * @param changes : The count of obstacle changes, taken before the search.
+	 */
+	public void put(PathKey key, List<Location> path, int nodes, int changes)
+	{
+		// Bounds of the path, in areas.
+		int minX = Math.min(key._gox, key._gtx);
+		int maxX = Math.max(key._gox, key._gtx);
+		int minY = Math.min(key._goy, key._gty);
+		int maxY = Math.max(key._goy, key._gty);
+		for (Location loc : path)
+		{
+			final int x = GeoEngine.getGeoX(loc.getX());
+			final int y = GeoEngine.getGeoY(loc.getY());
+			minX = Math.min(minX, x);
+			maxX = Math.max(maxX, x);
+			minY = Math.min(minY, y);
+			maxY = Math.max(maxY, y);
+		}
+		
+		final PathEntry entry = new PathEntry(path, nodes, minX >> AREA_SHIFT, minY >> AREA_SHIFT, maxX >> AREA_SHIFT, maxY >> AREA_SHIFT, System.currentTimeMillis() + _time);
+		entry._version = getVersion(key._instanceId, entry);
+		
+		// Versions are raised after the count of changes, an unchanged count means the versions are older than the search.
+		if (_changes.get() != changes)
+		{
+			return;
+		}
+		
+		entry._changes = changes;
+		_paths.put(key, entry);
+	}
+	
+	/**
+	 * Makes the cached paths of an instance crossing the given bounds stale. Called when a door or fence changes state.
+	 * @param instanceId : The instance id.
+	 * @param minX : The minimum geodata x of the obstacle.
+	 * @param minY : The minimum geodata y of the obstacle.
+	 * @param maxX : The maximum geodata x of the obstacle.
+	 * @param maxY : The maximum geodata y of the obstacle.
+	 */
+	public void invalidate(int instanceId, int minX, int minY, int maxX, int maxY)
+	{
+		_changes.incrementAndGet();
+		for (int x = minX >> AREA_SHIFT; x <= (maxX >> AREA_SHIFT); x++)
+		{
+			for (int y = minY >> AREA_SHIFT; y <= (maxY >> AREA_SHIFT); y++)
+			{
+				_versions.computeIfAbsent(getArea(instanceId, x, y), k -> new AtomicInteger()).incrementAndGet();
+			}
+		}
+	}
+	
+	/**
+	 * Removes the paths and the versions of an instance. Called when the instance is destroyed.
+	 * @param instanceId : The instance id.
+	 */
+	public void remove(int instanceId)
+	{
+		_versions.keySet().removeIf(k -> (k >> 32) == instanceId);
+		synchronized (_paths)
+		{
+			_paths.keySet().removeIf(k -> k._instanceId == instanceId);
+		}
+	}
+	
+	/**
+	 * @param instanceId : The instance id.
+	 * @param x : The area x.
+	 * @param y : The area y.
+	 * @return The key of the area version.
+	 */
+	private static long getArea(int instanceId, int x, int y)
+	{
+		return ((long) instanceId << 32) | (x << 16) | y;
+	}
+	
+	/**
+	 * @param instanceId : The instance id.
+	 * @param entry : The path entry.
+	 * @return The sum of the versions of the areas within the bounds of the path. Versions only grow, so any change within the bounds changes the sum.
+	 */
+	private int getVersion(int instanceId, PathEntry entry)
+	{
+		int version = 0;
+		for (int x = entry._minX; x <= entry._maxX; x++)
+		{
+			for (int y = entry._minY; y <= entry._maxY; y++)
+			{
+				final AtomicInteger areaVersion = _versions.get(getArea(instanceId, x, y));
+				if (areaVersion != null)
+				{
+					version += areaVersion.get();
+				}
+			}
+		}
+		return version;
+	}
+	
+	/**
+	 * Removes expired and stale paths.
+	 */
+	private void purge()
+	{
+		final long currentTime = System.currentTimeMillis();
+		synchronized (_paths)
+		{
+			_paths.entrySet().removeIf(e -> !isValid(e.getValue(), e.getKey()._instanceId, currentTime));
+		}
+	}
+	
+	private boolean isValid(PathEntry entry, int instanceId, long currentTime)
+	{
+		if (entry._expiration <= currentTime)
+		{
+			return false;
+		}
+		
+		// Nothing has changed since the last check.
+		final int changes = _changes.get();
+		if (entry._changes == changes)
+		{
+			return true;
+		}
+		
+		if (entry._version != getVersion(instanceId, entry))
+		{
+			return false;
+		}
+		
+		// Changes were elsewhere, skip the areas until the next one.
+		entry._changes = changes;
+		return true;
+	}
+	
+	public String[] getStats()
+	{
+		final long hits = _hits.sum();
+		final long total = hits + _misses.sum();
+		return new String[]
+		{
+			"Path cache:",
+			" |- Cached paths: " + _paths.size() + " of " + _maxSize,
+			" |- Hits: " + hits + " of " + total + " (" + (total == 0 ? 0 : (hits * 100) / total) + "%), Saved nodes: " + _savedNodes.sum()
+		};
+	}
+	
+	/**
+	 * Origin and target geodata cells with their layer height, in an instance.
+	 */
+	public static class PathKey
+	{
+		protected final int _gox;
+		protected final int _goy;
+		protected final int _goz;
+		protected final int _gtx;
+		protected final int _gty;
+		protected final int _gtz;
+		protected final int _instanceId;
+		private final int _hashCode;
+		
+		public PathKey(int gox, int goy, int goz, int gtx, int gty, int gtz, int instanceId)
+		{
+			_gox = gox;
+			_goy = goy;
+			_goz = goz;
+			_gtx = gtx;
+			_gty = gty;
+			_gtz = gtz;
+			_instanceId = instanceId;
+			
+			int hashCode = gox;
+			hashCode = (31 * hashCode) + goy;
+			hashCode = (31 * hashCode) + goz;
+			hashCode = (31 * hashCode) + gtx;
+			hashCode = (31 * hashCode) + gty;
+			hashCode = (31 * hashCode) + gtz;
+			_hashCode = (31 * hashCode) + instanceId;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return _hashCode;
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (!(obj instanceof PathKey))
+			{
+				return false;
+			}
+			
+			final PathKey key = (PathKey) obj;
+			return (_gox == key._gox) && (_goy == key._goy) && (_goz == key._goz) && (_gtx == key._gtx) && (_gty == key._gty) && (_gtz == key._gtz) && (_instanceId == key._instanceId);
+		}
+	}
+	
+	private static class PathEntry
+	{
+		protected final List<Location> _path;
+		protected final int _nodes;
+		protected final int _minX;
+		protected final int _minY;
+		protected final int _maxX;
+		protected final int _maxY;
+		protected final long _expiration;
+		protected int _version;
+		protected volatile int _changes;
+		
+		protected PathEntry(List<Location> path, int nodes, int minX, int minY, int maxX, int maxY, long expiration)
+		{
+			_path = path;
+			_nodes = nodes;
+			_minX = minX;
+			_minY = minY;
+			_maxX = maxX;
+			_maxY = maxY;
+			_expiration = expiration;
+		}
+	}
+}
\ No newline at end of file
@@ -31,6 +31,7 @@ import org.w3c.dom.Node;
 import org.l2jmobius.commons.database.DatabaseFactory;
 import org.l2jmobius.commons.util.Chronos;
 import org.l2jmobius.commons.util.IXmlReader;
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
 import org.l2jmobius.gameserver.model.WorldObject;
 import org.l2jmobius.gameserver.model.actor.instance.PlayerInstance;
 import org.l2jmobius.gameserver.model.instancezone.Instance;
@@ -297,6 +298,7 @@ public class InstanceManager implements IXmlReader
 			temp.cancelTimer();
 			INSTANCES.remove(instanceid);
 			_instanceWorlds.remove(instanceid);
+			GeoEngine.getInstance().onInstanceDestroy(instanceid);
 		}
 	}
 	
@@ -31,6 +31,7 @@ import org.l2jmobius.gameserver.ai.CreatureAI;
 import org.l2jmobius.gameserver.ai.CtrlEvent;
 import org.l2jmobius.gameserver.ai.CtrlIntention;
 import org.l2jmobius.gameserver.data.sql.CharNameTable;
+import org.l2jmobius.gameserver.model.actor.Attackable;
 import org.l2jmobius.gameserver.model.actor.Creature;
 import org.l2jmobius.gameserver.model.actor.Npc;
 import org.l2jmobius.gameserver.model.actor.Summon;
@@ -38,6 +39,7 @@ import org.l2jmobius.gameserver.model.actor.instance.PetInstance;
 import org.l2jmobius.gameserver.model.actor.instance.PlayerInstance;
 import org.l2jmobius.gameserver.model.events.EventDispatcher;
 import org.l2jmobius.gameserver.model.events.impl.creature.npc.OnNpcCreatureSee;
+import org.l2jmobius.gameserver.model.items.instance.ItemInstance;
 import org.l2jmobius.gameserver.network.Disconnection;
 import org.l2jmobius.gameserver.network.serverpackets.DeleteObject;
 
@@ -55,6 +57,18 @@ public class World
 	
 	/** Bit shift, defines number of regions note, shifting by 15 will result in regions corresponding to map tiles shifting by 11 divides one tile to 16x16 regions. */
 	public static final int SHIFT_BY = 11;
+	public static final int REGION_SIZE = 1 << SHIFT_BY;
+	
+	/** Base class of each world region category, except the last one that holds everything else. */
+	private static final Class<?>[] TYPE_CLASSES =
+	{
+		PlayerInstance.class,
+		Summon.class,
+		Attackable.class,
+		Npc.class,
+		ItemInstance.class
+	};
+	private static final Map<Class<?>, int[]> VISIBLE_TYPES = new ConcurrentHashMap<>();
 	
 	public static final int TILE_SIZE = 32768;
 	
@@ -534,57 +548,60 @@ public class World
 				continue;
 			}
 			
-			final List<WorldObject> visibleObjects = worldRegion.getVisibleObjects();
-			for (int j = 0; j < visibleObjects.size(); j++)
+			for (int type = 0; type < WorldRegion.TYPE_COUNT; type++)
 			{
-				final WorldObject wo = visibleObjects.get(j);
-				if ((wo == null) || (wo == object) || (wo.getInstanceId() != object.getInstanceId()))
+				final List<WorldObject> visibleObjects = worldRegion.getVisibleObjects(object.getInstanceId(), type);
+				for (int j = 0; j < visibleObjects.size(); j++)
 				{
-					continue;
-				}
-				
-				if (object.isPlayer() && wo.isVisibleFor((PlayerInstance) object))
-				{
-					wo.sendInfo((PlayerInstance) object);
-					if (wo.isCreature())
+					final WorldObject wo = visibleObjects.get(j);
+					if ((wo == null) || (wo == object) || (wo.getInstanceId() != object.getInstanceId()))
+					{
+						continue;
+					}
+					
+					if (object.isPlayer() && wo.isVisibleFor((PlayerInstance) object))
 					{
-						final CreatureAI ai = ((Creature) wo).getAI();
-						if (ai != null)
+						wo.sendInfo((PlayerInstance) object);
+						if (wo.isCreature())
 						{
-							ai.describeStateToPlayer((PlayerInstance) object);
-							if (wo.isMonster() && (ai.getIntention() == CtrlIntention.AI_INTENTION_IDLE))
+							final CreatureAI ai = ((Creature) wo).getAI();
+							if (ai != null)
 							{
-								ai.setIntention(CtrlIntention.AI_INTENTION_ACTIVE);
+								ai.describeStateToPlayer((PlayerInstance) object);
+								if (wo.isMonster() && (ai.getIntention() == CtrlIntention.AI_INTENTION_IDLE))
+								{
+									ai.setIntention(CtrlIntention.AI_INTENTION_ACTIVE);
+								}
 							}
 						}
 					}
-				}
-				
-				if (wo.isPlayer() && object.isVisibleFor((PlayerInstance) wo))
-				{
-					object.sendInfo((PlayerInstance) wo);
-					if (object.isCreature())
+					
+					if (wo.isPlayer() && object.isVisibleFor((PlayerInstance) wo))
 					{
-						final CreatureAI ai = ((Creature) object).getAI();
-						if (ai != null)
+						object.sendInfo((PlayerInstance) wo);
+						if (object.isCreature())
 						{
-							ai.describeStateToPlayer((PlayerInstance) wo);
-							if (object.isMonster() && (ai.getIntention() == CtrlIntention.AI_INTENTION_IDLE))
+							final CreatureAI ai = ((Creature) object).getAI();
+							if (ai != null)
 							{
-								ai.setIntention(CtrlIntention.AI_INTENTION_ACTIVE);
+								ai.describeStateToPlayer((PlayerInstance) wo);
+								if (object.isMonster() && (ai.getIntention() == CtrlIntention.AI_INTENTION_IDLE))
+								{
+									ai.setIntention(CtrlIntention.AI_INTENTION_ACTIVE);
+								}
 							}
 						}
 					}
-				}
-				
-				if (wo.isNpc() && object.isCreature())
-				{
-					EventDispatcher.getInstance().notifyEventAsync(new OnNpcCreatureSee((Npc) wo, (Creature) object, object.isSummon()), (Npc) wo);
-				}
-				
-				if (object.isNpc() && wo.isCreature())
-				{
-					EventDispatcher.getInstance().notifyEventAsync(new OnNpcCreatureSee((Npc) object, (Creature) wo, wo.isSummon()), (Npc) object);
+					
+					if (wo.isNpc() && object.isCreature())
+					{
+						EventDispatcher.getInstance().notifyEventAsync(new OnNpcCreatureSee((Npc) wo, (Creature) object, object.isSummon()), (Npc) wo);
+					}
+					
+					if (object.isNpc() && wo.isCreature())
+					{
+						EventDispatcher.getInstance().notifyEventAsync(new OnNpcCreatureSee((Npc) object, (Creature) wo, wo.isSummon()), (Npc) object);
+					}
 				}
 			}
 		}
@@ -623,26 +640,66 @@ public class World
 			return;
 		}
 		
+		final int instanceId = object.getInstanceId();
+		final int[] types = getVisibleTypes(clazz);
 		final WorldRegion[] surroundingRegions = worldRegion.getSurroundingRegions();
 		for (int i = 0; i < surroundingRegions.length; i++)
 		{
-			final List<WorldObject> visibleObjects = surroundingRegions[i].getVisibleObjects();
-			for (int j = 0; j < visibleObjects.size(); j++)
+			for (int type : types)
 			{
-				final WorldObject wo = visibleObjects.get(j);
-				if ((wo == null) || (wo == object) || !clazz.isInstance(wo))
+				final List<WorldObject> visibleObjects = surroundingRegions[i].getVisibleObjects(instanceId, type);
+				for (int j = 0; j < visibleObjects.size(); j++)
 				{
-					continue;
+					final WorldObject wo = visibleObjects.get(j);
+					if ((wo == null) || (wo == object) || !clazz.isInstance(wo))
+					{
+						continue;
+					}
+					
+					if (wo.getInstanceId() != object.getInstanceId())
+					{
+						continue;
+					}
+					
+					c.accept(clazz.cast(wo));
 				}
-				
-				if (wo.getInstanceId() != object.getInstanceId())
+			}
+		}
+	}
+	
+	/**
+	 * @param clazz the class of the searched objects
+	 * @return the world region categories that can contain objects of the given class
+	 */
+	private static int[] getVisibleTypes(Class<?> clazz)
+	{
+		int[] types = VISIBLE_TYPES.get(clazz);
+		if (types == null)
+		{
+			// A subclass of a category is found in that category, or in the categories of its own subclasses (Npc holds Attackable).
+			int owner = -1;
+			for (int type = 0; type < TYPE_CLASSES.length; type++)
+			{
+				if (TYPE_CLASSES[type].isAssignableFrom(clazz))
 				{
-					continue;
+					owner = type;
+					break;
+				}
+			}
+			
+			// Skip the categories that cannot be instances of the class. The last category is visited unless the class belongs to another one.
+			final List<Integer> list = new ArrayList<>();
+			for (int type = 0; type < WorldRegion.TYPE_COUNT; type++)
+			{
+				if ((type == owner) || clazz.isInterface() || ((type == WorldRegion.TYPE_OTHER) ? owner < 0 : clazz.isAssignableFrom(TYPE_CLASSES[type])))
+				{
+					list.add(type);
 				}
-				
-				c.accept(clazz.cast(wo));
 			}
+			types = list.stream().mapToInt(Integer::intValue).toArray();
+			VISIBLE_TYPES.put(clazz, types);
 		}
+		return types;
 	}
 	
 	public <T extends WorldObject> List<T> getVisibleObjectsInRange(WorldObject object, Class<T> clazz, int range)
@@ -678,26 +735,68 @@ public class World
 			return;
 		}
 		
+		final int instanceId = object.getInstanceId();
+		final int x = object.getX();
+		final int y = object.getY();
+		final int z = object.getZ();
+		final int boxRange = Math.min(range, REGION_SIZE * 2); // Surrounding regions do not reach further.
+		final int minX = x - boxRange;
+		final int minY = y - boxRange;
+		final int maxX = x + boxRange;
+		final int maxY = y + boxRange;
+		
 		final WorldRegion[] surroundingRegions = worldRegion.getSurroundingRegions();
 		for (int i = 0; i < surroundingRegions.length; i++)
 		{
-			final List<WorldObject> visibleObjects = surroundingRegions[i].getVisibleObjects();
-			for (int j = 0; j < visibleObjects.size(); j++)
+			// Only visit the cells that intersect the square around the range.
+			final WorldRegion region = surroundingRegions[i];
+			final int regionMinX = region.getMinX();
+			final int regionMinY = region.getMinY();
+			final int regionMaxX = regionMinX + REGION_SIZE - 1;
+			final int regionMaxY = regionMinY + REGION_SIZE - 1;
+			if ((minX > regionMaxX) || (maxX < regionMinX) || (minY > regionMaxY) || (maxY < regionMinY))
 			{
-				final WorldObject wo = visibleObjects.get(j);
-				if ((wo == null) || (wo == object) || !clazz.isInstance(wo))
-				{
-					continue;
-				}
-				
-				if (wo.getInstanceId() != object.getInstanceId())
-				{
-					continue;
-				}
-				
-				if (wo.calculateDistance3D(object) <= range)
+				continue;
+			}
+			
+			final int cellMinX = (Math.max(minX, regionMinX) - regionMinX) >> WorldRegion.CELL_SHIFT;
+			final int cellMinY = (Math.max(minY, regionMinY) - regionMinY) >> WorldRegion.CELL_SHIFT;
+			final int cellMaxX = (Math.min(maxX, regionMaxX) - regionMinX) >> WorldRegion.CELL_SHIFT;
+			final int cellMaxY = (Math.min(maxY, regionMaxY) - regionMinY) >> WorldRegion.CELL_SHIFT;
+			for (int cellX = cellMinX; cellX <= cellMaxX; cellX++)
+			{
+				for (int cellY = cellMinY; cellY <= cellMaxY; cellY++)
 				{
-					c.accept(clazz.cast(wo));
+					final List<WorldObject> visibleObjects = region.getCellObjects(instanceId, cellX, cellY);
+					if (visibleObjects == null)
+					{
+						continue;
+					}
+					
+					for (int j = 0; j < visibleObjects.size(); j++)
+					{
+						final WorldObject wo = visibleObjects.get(j);
+						if ((wo == null) || (wo == object))
+						{
+							continue;
+						}
+						
+						// Cheap bounding box check before the type and distance checks.
+						if ((Math.abs(wo.getX() - x) > range) || (Math.abs(wo.getY() - y) > range) || (Math.abs(wo.getZ() - z) > range))
+						{
+							continue;
+						}
+						
+						if (!clazz.isInstance(wo) || (wo.getInstanceId() != object.getInstanceId()))
+						{
+							continue;
+						}
+						
+						if (wo.calculateDistance3D(object) <= range)
+						{
+							c.accept(clazz.cast(wo));
+						}
+					}
 				}
 			}
 		}
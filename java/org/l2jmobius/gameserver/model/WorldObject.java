@@ -59,6 +59,10 @@ public abstract class WorldObject extends ListenersContainer implements IIdentif
 	private int _objectId;
 	/** World Region */
 	private WorldRegion _worldRegion;
+	/** Cell of the world region, -1 when not in a region */
+	private volatile int _worldCell = -1;
+	/** Instance id of the world region partition holding the object */
+	private volatile int _worldCellInstanceId = 0;
 	/** Instance type */
 	private InstanceType _instanceType;
 	private Map<String, Object> _scripts;
@@ -562,6 +566,22 @@ public abstract class WorldObject extends ListenersContainer implements IIdentif
 		return _worldRegion;
 	}
 	
+	public int getWorldCell()
+	{
+		return _worldCell;
+	}
+	
+	public int getWorldCellInstanceId()
+	{
+		return _worldCellInstanceId;
+	}
+	
+	public void setWorldCell(int instanceId, int cell)
+	{
+		_worldCellInstanceId = instanceId;
+		_worldCell = cell;
+	}
+	
 	public void setWorldRegion(WorldRegion region)
 	{
 		if ((region == null) && (_worldRegion != null))
@@ -644,6 +664,14 @@ public abstract class WorldObject extends ListenersContainer implements IIdentif
 		_y = newY;
 		_z = newZ;
 		
+		updateWorldRegion();
+	}
+	
+	/**
+	 * Moves a spawned object to the world region of its position, or to its cell in its current region.
+	 */
+	private void updateWorldRegion()
+	{
 		if (_isSpawned)
 		{
 			final WorldRegion newRegion = World.getInstance().getRegion(this);
@@ -657,6 +685,10 @@ public abstract class WorldObject extends ListenersContainer implements IIdentif
 				World.getInstance().switchRegion(this, newRegion);
 				setWorldRegion(newRegion);
 			}
+			else if (_worldRegion != null)
+			{
+				_worldRegion.updatePartition(this);
+			}
 		}
 	}
 	
@@ -738,6 +770,11 @@ public abstract class WorldObject extends ListenersContainer implements IIdentif
 		}
 		
 		_instanceId = instanceId;
+		
+		if (_isSpawned && (_worldRegion != null))
+		{
+			_worldRegion.updatePartition(this);
+		}
 	}
 	
 	/**
@@ -771,6 +808,8 @@ public abstract class WorldObject extends ListenersContainer implements IIdentif
 		_z = loc.getZ();
 		_heading = loc.getHeading();
 		_instanceId = loc.getInstanceId();
+		
+		updateWorldRegion();
 	}
 	
 	/**
@@ -17,22 +17,47 @@
 package org.l2jmobius.gameserver.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.concurrent.ThreadPool;
+import org.l2jmobius.gameserver.ai.AttackableAI;
 import org.l2jmobius.gameserver.model.actor.Attackable;
 import org.l2jmobius.gameserver.model.actor.Npc;
+import org.l2jmobius.gameserver.model.actor.Summon;
 import org.l2jmobius.gameserver.model.actor.instance.DoorInstance;
 import org.l2jmobius.gameserver.model.actor.instance.FenceInstance;
+import org.l2jmobius.gameserver.model.actor.instance.PlayerInstance;
+import org.l2jmobius.gameserver.model.items.instance.ItemInstance;
 import org.l2jmobius.gameserver.taskmanager.RandomAnimationTaskManager;
 import org.l2jmobius.gameserver.util.UnboundArrayList;
 
 public class WorldRegion
 {
+	/** Size of the square cells regions are split into for range searches, as a power of 2. */
+	public static final int CELL_SHIFT = 8;
+	public static final int CELLS_PER_SIDE = 1 << (World.SHIFT_BY - CELL_SHIFT);
+	private static final int CELL_MASK = CELLS_PER_SIDE - 1;
+	
+	/** Categories of visible objects, each also kept in its own list. */
+	public static final int TYPE_PLAYER = 0;
+	public static final int TYPE_SUMMON = 1;
+	public static final int TYPE_ATTACKABLE = 2;
+	public static final int TYPE_NPC = 3;
+	public static final int TYPE_ITEM = 4;
+	public static final int TYPE_OTHER = 5; // Doors, fences, static objects, vehicles...
+	public static final int TYPE_COUNT = 6;
+	
 	/** List containing visible objects in this world region. */
 	private final UnboundArrayList<WorldObject> _visibleObjects = new UnboundArrayList<>();
+	/** Visible objects outside of instances, split by category and position. */
+	private final ObjectPartition _globalObjects = new ObjectPartition();
+	/** Visible objects of each instance, split by category and position. */
+	private final Map<Integer, ObjectPartition> _instanceObjects = new ConcurrentHashMap<>();
 	/** List containing doors in this world region. */
 	private final List<DoorInstance> _doors = new ArrayList<>(1);
 	/** List containing fences in this world region. */
@@ -41,6 +66,8 @@ public class WorldRegion
 	private WorldRegion[] _surroundingRegions;
 	private final int _regionX;
 	private final int _regionY;
+	private final int _minX;
+	private final int _minY;
 	private boolean _active = Config.GRIDS_ALWAYS_ON;
 	private ScheduledFuture<?> _neighborsTask = null;
 	
@@ -48,6 +75,8 @@ public class WorldRegion
 	{
 		_regionX = regionX;
 		_regionY = regionY;
+		_minX = (regionX - World.OFFSET_X) << World.SHIFT_BY;
+		_minY = (regionY - World.OFFSET_Y) << World.SHIFT_BY;
 	}
 	
 	private void switchAI(boolean isOn)
@@ -235,7 +264,11 @@ public class WorldRegion
 			return;
 		}
 		
-		_visibleObjects.addIfAbsent(object);
+		if (_visibleObjects.addIfAbsent(object))
+		{
+			addToPartition(object);
+			AttackableAI.notifyAggroScan(object);
+		}
 		
 		if (object.isDoor())
 		{
@@ -276,6 +309,7 @@ public class WorldRegion
 		}
 		
 		_visibleObjects.remove(object);
+		removeFromPartition(object);
 		
 		if (object.isDoor())
 		{
@@ -303,6 +337,123 @@ public class WorldRegion
 		return _visibleObjects;
 	}
 	
+	/**
+	 * @param instanceId the instance id of the objects
+	 * @param type the category of objects, one of the TYPE constants
+	 * @return the visible objects of the given instance and category in this region
+	 */
+	public List<WorldObject> getVisibleObjects(int instanceId, int type)
+	{
+		final ObjectPartition partition = getPartition(instanceId);
+		return partition == null ? Collections.emptyList() : partition.getVisibleObjects(type);
+	}
+	
+	/**
+	 * @param instanceId the instance id of the objects
+	 * @param cellX the cell column inside this region
+	 * @param cellY the cell row inside this region
+	 * @return the visible objects of the given instance inside the given cell of this region, {@code null} if there are none
+	 */
+	public List<WorldObject> getCellObjects(int instanceId, int cellX, int cellY)
+	{
+		final ObjectPartition partition = getPartition(instanceId);
+		return partition == null ? null : partition.getCellObjects(cellX, cellY);
+	}
+	
+	/**
+	 * @param object the object
+	 * @return the category of the object, one of the TYPE constants
+	 */
+	public static int getType(WorldObject object)
+	{
+		if (object instanceof PlayerInstance)
+		{
+			return TYPE_PLAYER;
+		}
+		if (object instanceof Summon)
+		{
+			return TYPE_SUMMON;
+		}
+		if (object instanceof Attackable)
+		{
+			return TYPE_ATTACKABLE;
+		}
+		if (object instanceof Npc)
+		{
+			return TYPE_NPC;
+		}
+		if (object instanceof ItemInstance)
+		{
+			return TYPE_ITEM;
+		}
+		return TYPE_OTHER;
+	}
+	
+	private static int getCellIndex(int x, int y)
+	{
+		return (((x >> CELL_SHIFT) & CELL_MASK) * CELLS_PER_SIDE) + ((y >> CELL_SHIFT) & CELL_MASK);
+	}
+	
+	private ObjectPartition getPartition(int instanceId)
+	{
+		return instanceId == 0 ? _globalObjects : _instanceObjects.get(instanceId);
+	}
+	
+	private synchronized void addToPartition(WorldObject object)
+	{
+		final int instanceId = object.getInstanceId();
+		final ObjectPartition partition = instanceId == 0 ? _globalObjects : _instanceObjects.computeIfAbsent(instanceId, k -> new ObjectPartition());
+		object.setWorldCell(instanceId, partition.add(object));
+	}
+	
+	private synchronized void removeFromPartition(WorldObject object)
+	{
+		final int index = object.getWorldCell();
+		if (index < 0)
+		{
+			return;
+		}
+		
+		final int instanceId = object.getWorldCellInstanceId();
+		final ObjectPartition partition = getPartition(instanceId);
+		if (partition != null)
+		{
+			partition.remove(object, index);
+			if ((instanceId != 0) && partition.isEmpty())
+			{
+				_instanceObjects.remove(instanceId);
+			}
+		}
+		object.setWorldCell(0, -1);
+	}
+	
+	/**
+	 * Moves the object to the partition of its current instance and the cell of its current position, when they changed inside this region.
+	 * @param object the object
+	 */
+	public void updatePartition(WorldObject object)
+	{
+		final int index = object.getWorldCell();
+		if ((index < 0) || ((index == getCellIndex(object.getX(), object.getY())) && (object.getWorldCellInstanceId() == object.getInstanceId())))
+		{
+			return;
+		}
+		
+		synchronized (this)
+		{
+			// Removed meanwhile.
+			if (object.getWorldCell() < 0)
+			{
+				return;
+			}
+			
+			removeFromPartition(object);
+			addToPartition(object);
+		}
+		
+		AttackableAI.notifyAggroScan(object);
+	}
+	
 	public synchronized void addDoor(DoorInstance door)
 	{
 		if (!_doors.contains(door))
@@ -375,9 +526,102 @@ public class WorldRegion
 		return _regionY;
 	}
 	
+	/**
+	 * @return the lowest world X coordinate inside this region
+	 */
+	public int getMinX()
+	{
+		return _minX;
+	}
+	
+	/**
+	 * @return the lowest world Y coordinate inside this region
+	 */
+	public int getMinY()
+	{
+		return _minY;
+	}
+	
 	@Override
 	public String toString()
 	{
 		return "(" + _regionX + ", " + _regionY + ")";
 	}
+	
+	/**
+	 * Visible objects of one instance in this region, split by category and by position.
+	 */
+	private static class ObjectPartition
+	{
+		private final UnboundArrayList<WorldObject>[] _typedObjects;
+		/** Created when first needed. */
+		private UnboundArrayList<WorldObject>[] _cells;
+		private int _size = 0;
+		
+		@SuppressWarnings("unchecked")
+		protected ObjectPartition()
+		{
+			_typedObjects = (UnboundArrayList<WorldObject>[]) new UnboundArrayList<?>[TYPE_COUNT];
+			for (int i = 0; i < TYPE_COUNT; i++)
+			{
+				_typedObjects[i] = new UnboundArrayList<>();
+			}
+		}
+		
+		/**
+		 * @param object the object to add
+		 * @return the cell index of the object
+		 */
+		@SuppressWarnings("unchecked")
+		protected int add(WorldObject object)
+		{
+			_typedObjects[getType(object)].add(object);
+			
+			if (_cells == null)
+			{
+				_cells = (UnboundArrayList<WorldObject>[]) new UnboundArrayList<?>[CELLS_PER_SIDE * CELLS_PER_SIDE];
+			}
+			final int index = getCellIndex(object.getX(), object.getY());
+			UnboundArrayList<WorldObject> cell = _cells[index];
+			if (cell == null)
+			{
+				cell = new UnboundArrayList<>();
+				_cells[index] = cell;
+			}
+			cell.add(object);
+			
+			_size++;
+			return index;
+		}
+		
+		protected void remove(WorldObject object, int index)
+		{
+			if (_typedObjects[getType(object)].remove(object))
+			{
+				_size--;
+			}
+			
+			final UnboundArrayList<WorldObject> cell = _cells == null ? null : _cells[index];
+			if (cell != null)
+			{
+				cell.remove(object);
+			}
+		}
+		
+		protected boolean isEmpty()
+		{
+			return _size == 0;
+		}
+		
+		protected List<WorldObject> getVisibleObjects(int type)
+		{
+			return _typedObjects[type];
+		}
+		
+		protected List<WorldObject> getCellObjects(int cellX, int cellY)
+		{
+			final UnboundArrayList<WorldObject>[] cells = _cells;
+			return cells == null ? null : cells[(cellX * CELLS_PER_SIDE) + cellY];
+		}
+	}
 }
@@ -151,12 +151,14 @@ import org.l2jmobius.gameserver.network.serverpackets.MoveToLocation;
 import org.l2jmobius.gameserver.network.serverpackets.Revive;
 import org.l2jmobius.gameserver.network.serverpackets.ServerObjectInfo;
 import org.l2jmobius.gameserver.network.serverpackets.SetupGauge;
+import org.l2jmobius.gameserver.network.serverpackets.SharedClientPacket;
 import org.l2jmobius.gameserver.network.serverpackets.SocialAction;
 import org.l2jmobius.gameserver.network.serverpackets.StatusUpdate;
 import org.l2jmobius.gameserver.network.serverpackets.StopMove;
 import org.l2jmobius.gameserver.network.serverpackets.SystemMessage;
 import org.l2jmobius.gameserver.network.serverpackets.TeleportToLocation;
 import org.l2jmobius.gameserver.taskmanager.AttackStanceTaskManager;
+import org.l2jmobius.gameserver.taskmanager.PathFindingTaskManager;
 import org.l2jmobius.gameserver.util.Util;
 
 /**
@@ -543,13 +545,21 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 	 */
 	public void broadcastPacket(IClientOutgoingPacket mov)
 	{
-		World.getInstance().forEachVisibleObject(this, PlayerInstance.class, player ->
+		final IClientOutgoingPacket packet = SharedClientPacket.of(mov);
+		try
 		{
-			if (isVisibleFor(player))
+			World.getInstance().forEachVisibleObject(this, PlayerInstance.class, player ->
 			{
-				player.sendPacket(mov);
-			}
-		});
+				if (isVisibleFor(player))
+				{
+					player.sendPacket(packet);
+				}
+			});
+		}
+		finally
+		{
+			SharedClientPacket.release(packet);
+		}
 	}
 	
 	/**
@@ -564,13 +574,21 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 	 */
 	public void broadcastPacket(IClientOutgoingPacket mov, int radiusInKnownlist)
 	{
-		World.getInstance().forEachVisibleObjectInRange(this, PlayerInstance.class, radiusInKnownlist, player ->
+		final IClientOutgoingPacket packet = SharedClientPacket.of(mov);
+		try
 		{
-			if (isVisibleFor(player))
+			World.getInstance().forEachVisibleObjectInRange(this, PlayerInstance.class, radiusInKnownlist, player ->
 			{
-				player.sendPacket(mov);
-			}
-		});
+				if (isVisibleFor(player))
+				{
+					player.sendPacket(packet);
+				}
+			});
+		}
+		finally
+		{
+			SharedClientPacket.release(packet);
+		}
 	}
 	
 	public void broadcastMoveToLocation()
@@ -3384,6 +3402,14 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 		public int geoPathAccurateTy;
 		public int geoPathGtx;
 		public int geoPathGty;
+		
+		// Position calculated by calculatePosition, set by applyPosition.
+		public boolean _positionPending;
+		public boolean _blocked;
+		public boolean _arrived;
+		public int _xNext;
+		public int _yNext;
+		public int _zNext;
 	}
 	
 	/**
@@ -3434,6 +3460,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 			
 			// Add the Func to the calculator corresponding to the state
 			_calculators[stat].addFunc(function);
+			getStat().invalidateStatCache();
 		}
 	}
 	
@@ -3503,6 +3530,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 			
 			// Remove the Func object from the Calculator
 			_calculators[stat].removeFunc(function);
+			getStat().invalidateStatCache();
 			
 			if (_calculators[stat].size() == 0)
 			{
@@ -3610,6 +3638,7 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 				}
 				i++;
 			}
+			getStat().invalidateStatCache();
 			
 			// If possible, free the memory and just create a link on NPC_STD_CALCULATOR
 			if (isNpc())
@@ -3919,20 +3948,24 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 	 * @return True if the movement is finished
 	 */
 	public boolean updatePosition()
+	{
+		return calculatePosition() && applyPosition();
+	}
+	
+	/**
+	 * Calculate the position of the Creature during a movement, without setting it.<br>
+	 * Only reads the world, so positions of many creatures can be calculated in parallel. The position is then set by {@link #applyPosition()}.
+	 * @return True if {@link #applyPosition()} has to be called
+	 */
+	public boolean calculatePosition()
 	{
 		// Get movement data
 		final MoveData m = _move;
-		if (m == null)
+		if ((m == null) || !isSpawned())
 		{
 			return true;
 		}
 		
-		if (!isSpawned())
-		{
-			_move = null;
-			return true;
-		}
-		
 		// Check if this is the first update
 		if (m._moveTimestamp == 0)
 		{
@@ -3978,17 +4011,15 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 				final int y = yPrev + y1;
 				if (!GeoEngine.getInstance().canMoveToTarget(xPrev, yPrev, zPrev, x, y, zPrev, getInstanceId()))
 				{
-					_move.onGeodataPathIndex = -1;
-					stopMove(getActingPlayer().getLastServerPosition());
-					return false;
+					m._blocked = true;
+					return true;
 				}
 			}
 			// Prevent player moving on ledges.
 			if ((dz > 180) && (distance < 300))
 			{
-				_move.onGeodataPathIndex = -1;
-				stopMove(getActingPlayer().getLastServerPosition());
-				return false;
+				m._blocked = true;
+				return true;
 			}
 		}
 		
@@ -4015,7 +4046,10 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 		if (distFraction > 1)
 		{
 			// Set the position of the Creature to the destination
-			super.setXYZ(m._xDestination, m._yDestination, m._zDestination);
+			m._xNext = m._xDestination;
+			m._yNext = m._yDestination;
+			m._zNext = m._zDestination;
+			m._arrived = true;
 		}
 		else
 		{
@@ -4023,14 +4057,55 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 			m._yAccurate += dy * distFraction;
 			
 			// Set the position of the Creature to estimated after parcial move
-			super.setXYZ((int) (m._xAccurate), (int) (m._yAccurate), zPrev + (int) ((dz * distFraction) + 0.5));
+			m._xNext = (int) (m._xAccurate);
+			m._yNext = (int) (m._yAccurate);
+			m._zNext = zPrev + (int) ((dz * distFraction) + 0.5);
 		}
-		revalidateZone(false);
 		
 		// Set the timer of last position update to now
 		m._moveTimestamp = gameTicks;
+		m._positionPending = true;
+		return true;
+	}
+	
+	/**
+	 * Set the position calculated by {@link #calculatePosition()}, then update the world region and zones of the Creature.<br>
+	 * World regions and zones are shared between creatures, so positions are set by a single thread.
+	 * @return True if the movement is finished
+	 */
+	public boolean applyPosition()
+	{
+		final MoveData m = _move;
+		if (m == null)
+		{
+			return true;
+		}
 		
-		if (distFraction > 1)
+		if (!isSpawned())
+		{
+			_move = null;
+			return true;
+		}
+		
+		if (m._blocked)
+		{
+			m._blocked = false;
+			m.onGeodataPathIndex = -1;
+			stopMove(getActingPlayer().getLastServerPosition());
+			return false;
+		}
+		
+		// Movement has changed after the position was calculated.
+		if (!m._positionPending)
+		{
+			return false;
+		}
+		m._positionPending = false;
+		
+		super.setXYZ(m._xNext, m._yNext, m._zNext);
+		revalidateZone(false);
+		
+		if (m._arrived)
 		{
 			ThreadPool.execute(() -> getAI().notifyEvent(CtrlEvent.EVT_ARRIVED));
 			return true;
@@ -4088,6 +4163,10 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 		// Delete movement data of the Creature
 		_move = null;
 		_cursorKeyMovement = false;
+		if (!isPlayable() && PathFindingTaskManager.getInstance().isEnabled())
+		{
+			PathFindingTaskManager.getInstance().cancel(this);
+		}
 		
 		// All data are contained in a Location object
 		if (loc != null)
@@ -4346,7 +4425,19 @@ public abstract class Creature extends WorldObject implements ISkillsHolder, IDe
 				if (((originalDistance - distance) > 30) && !isAfraid() && !isInVehicle)
 				{
 					// Path calculation -- overrides previous movement check
-					m.geoPath = GeoEngine.getInstance().findPath(curX, curY, curZ, originalX, originalY, originalZ, getInstanceId());
+					// AI controlled creatures get their path from the pathfinding threads, movement starts again once it is ready.
+					if (!isPlayable() && PathFindingTaskManager.getInstance().isEnabled())
+					{
+						m.geoPath = PathFindingTaskManager.getInstance().getPath(this, curX, curY, curZ, originalX, originalY, originalZ, xValue, yValue, zValue, offsetValue);
+						if (m.geoPath == null)
+						{
+							return;
+						}
+					}
+					else
+					{
+						m.geoPath = GeoEngine.getInstance().findPath(curX, curY, curZ, originalX, originalY, originalZ, getInstanceId());
+					}
 					if ((m.geoPath == null) || (m.geoPath.size() < 2)) // No path found
 					{
 						if (isPlayer() && !_isFlying && !isInWater)
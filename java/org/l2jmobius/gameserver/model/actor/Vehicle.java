@@ -303,9 +303,9 @@ public abstract class Vehicle extends Creature
 	}
 	
 	@Override
-	public boolean updatePosition()
+	public boolean applyPosition()
 	{
-		final boolean result = super.updatePosition();
+		final boolean result = super.applyPosition();
 		for (PlayerInstance player : _passengers)
 		{
 			if ((player != null) && (player.getVehicle() == this))
@@ -28,6 +28,7 @@ import org.l2jmobius.gameserver.ai.DoorAI;
 import org.l2jmobius.gameserver.data.xml.DoorData;
 import org.l2jmobius.gameserver.enums.InstanceType;
 import org.l2jmobius.gameserver.enums.Race;
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
 import org.l2jmobius.gameserver.instancemanager.CastleManager;
 import org.l2jmobius.gameserver.instancemanager.ClanHallManager;
 import org.l2jmobius.gameserver.instancemanager.FortManager;
@@ -225,6 +226,7 @@ public class DoorInstance extends Creature
 	public void setOpen(boolean open)
 	{
 		_open = open;
+		GeoEngine.getInstance().onObstacleChange(getInstanceId(), getXMin(), getYMin(), getXMax(), getYMax());
 		if (getChildId() > 0)
 		{
 			final DoorInstance sibling = getSiblingDoor(getChildId());
@@ -544,6 +546,26 @@ public class DoorInstance extends Creature
 		return getTemplate().getNodeY()[i];
 	}
 	
+	public int getXMin()
+	{
+		return getTemplate().getNodeXMin();
+	}
+	
+	public int getXMax()
+	{
+		return getTemplate().getNodeXMax();
+	}
+	
+	public int getYMin()
+	{
+		return getTemplate().getNodeYMin();
+	}
+	
+	public int getYMax()
+	{
+		return getTemplate().getNodeYMax();
+	}
+	
 	public int getZMin()
 	{
 		return getTemplate().getNodeZ();
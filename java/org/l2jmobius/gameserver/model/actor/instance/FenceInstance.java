@@ -18,6 +18,7 @@ package org.l2jmobius.gameserver.model.actor.instance;
 
 import org.l2jmobius.gameserver.data.xml.FenceData;
 import org.l2jmobius.gameserver.enums.FenceState;
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
 import org.l2jmobius.gameserver.instancemanager.IdManager;
 import org.l2jmobius.gameserver.model.World;
 import org.l2jmobius.gameserver.model.WorldObject;
@@ -128,6 +129,7 @@ public class FenceInstance extends WorldObject
 	public void setState(FenceState type)
 	{
 		_state = type;
+		GeoEngine.getInstance().onObstacleChange(getInstanceId(), getXMin(), getYMin(), getXMax(), getYMax());
 		broadcastInfo();
 	}
 	
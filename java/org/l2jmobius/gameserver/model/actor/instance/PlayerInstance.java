@@ -311,6 +311,7 @@ import org.l2jmobius.gameserver.network.serverpackets.RecipeShopSellList;
 import org.l2jmobius.gameserver.network.serverpackets.RelationChanged;
 import org.l2jmobius.gameserver.network.serverpackets.Ride;
 import org.l2jmobius.gameserver.network.serverpackets.SetupGauge;
+import org.l2jmobius.gameserver.network.serverpackets.SharedClientPacket;
 import org.l2jmobius.gameserver.network.serverpackets.ShortCutInit;
 import org.l2jmobius.gameserver.network.serverpackets.SkillCoolTime;
 import org.l2jmobius.gameserver.network.serverpackets.SkillList;
@@ -4141,72 +4142,88 @@ public class PlayerInstance extends Playable
 	public void broadcastPacket(IClientOutgoingPacket mov)
 	{
 		final boolean isCharInfo = mov instanceof CharInfo;
-		if (!isCharInfo)
-		{
-			sendPacket(mov);
-		}
-		
-		World.getInstance().forEachVisibleObject(this, PlayerInstance.class, player ->
+		final IClientOutgoingPacket packet = SharedClientPacket.of(mov);
+		try
 		{
-			if (!isVisibleFor(player))
+			if (!isCharInfo)
 			{
-				return;
+				sendPacket(packet);
 			}
 			
-			player.sendPacket(mov);
-			
-			if (isCharInfo)
+			World.getInstance().forEachVisibleObject(this, PlayerInstance.class, player ->
 			{
-				final int relation = getRelation(player);
-				final boolean isAutoAttackable = isAutoAttackable(player);
-				final RelationCache cache = getKnownRelations().get(player.getObjectId());
-				if ((cache == null) || (cache.getRelation() != relation) || (cache.isAutoAttackable() != isAutoAttackable))
+				if (!isVisibleFor(player))
 				{
-					player.sendPacket(new RelationChanged(this, relation, isAutoAttackable));
-					if (hasSummon())
+					return;
+				}
+				
+				player.sendPacket(packet);
+				
+				if (isCharInfo)
+				{
+					final int relation = getRelation(player);
+					final boolean isAutoAttackable = isAutoAttackable(player);
+					final RelationCache cache = getKnownRelations().get(player.getObjectId());
+					if ((cache == null) || (cache.getRelation() != relation) || (cache.isAutoAttackable() != isAutoAttackable))
 					{
-						player.sendPacket(new RelationChanged(_summon, relation, isAutoAttackable));
+						player.sendPacket(new RelationChanged(this, relation, isAutoAttackable));
+						if (hasSummon())
+						{
+							player.sendPacket(new RelationChanged(_summon, relation, isAutoAttackable));
+						}
+						getKnownRelations().put(player.getObjectId(), new RelationCache(relation, isAutoAttackable));
 					}
-					getKnownRelations().put(player.getObjectId(), new RelationCache(relation, isAutoAttackable));
 				}
-			}
-		});
+			});
+		}
+		finally
+		{
+			SharedClientPacket.release(packet);
+		}
 	}
 	
 	@Override
 	public void broadcastPacket(IClientOutgoingPacket mov, int radius)
 	{
 		final boolean isCharInfo = mov instanceof CharInfo;
-		if (!isCharInfo)
-		{
-			sendPacket(mov);
-		}
-		
-		World.getInstance().forEachVisibleObject(this, PlayerInstance.class, player ->
+		final IClientOutgoingPacket packet = SharedClientPacket.of(mov);
+		try
 		{
-			if (!isVisibleFor(player) || (calculateDistance3D(player) >= radius))
+			if (!isCharInfo)
 			{
-				return;
+				sendPacket(packet);
 			}
 			
-			player.sendPacket(mov);
-			
-			if (isCharInfo)
+			World.getInstance().forEachVisibleObject(this, PlayerInstance.class, player ->
 			{
-				final int relation = getRelation(player);
-				final boolean isAutoAttackable = isAutoAttackable(player);
-				final RelationCache cache = getKnownRelations().get(player.getObjectId());
-				if ((cache == null) || (cache.getRelation() != relation) || (cache.isAutoAttackable() != isAutoAttackable))
+				if (!isVisibleFor(player) || (calculateDistance3D(player) >= radius))
 				{
-					player.sendPacket(new RelationChanged(this, relation, isAutoAttackable));
-					if (hasSummon())
+					return;
+				}
+				
+				player.sendPacket(packet);
+				
+				if (isCharInfo)
+				{
+					final int relation = getRelation(player);
+					final boolean isAutoAttackable = isAutoAttackable(player);
+					final RelationCache cache = getKnownRelations().get(player.getObjectId());
+					if ((cache == null) || (cache.getRelation() != relation) || (cache.isAutoAttackable() != isAutoAttackable))
 					{
-						player.sendPacket(new RelationChanged(_summon, relation, isAutoAttackable));
+						player.sendPacket(new RelationChanged(this, relation, isAutoAttackable));
+						if (hasSummon())
+						{
+							player.sendPacket(new RelationChanged(_summon, relation, isAutoAttackable));
+						}
+						getKnownRelations().put(player.getObjectId(), new RelationCache(relation, isAutoAttackable));
 					}
-					getKnownRelations().put(player.getObjectId(), new RelationCache(relation, isAutoAttackable));
 				}
-			}
-		});
+			});
+		}
+		finally
+		{
+			SharedClientPacket.release(packet);
+		}
 	}
 	
 	/**
@@ -4665,6 +4682,7 @@ public class PlayerInstance extends Playable
 		}
 		
 		_transformation = transformation;
+		getStat().invalidateStatCache();
 		getEffectList().stopAllToggles();
 		transformation.onTransform(this);
 		sendSkillList();
@@ -4686,6 +4704,7 @@ public class PlayerInstance extends Playable
 		setQueuedSkill(null, false, false);
 		_transformation.onUntransform(this);
 		_transformation = null;
+		getStat().invalidateStatCache();
 		getEffectList().stopSkillEffects(false, AbnormalType.TRANSFORM);
 		sendSkillList();
 		sendPacket(new SkillCoolTime(this));
@@ -8123,6 +8142,7 @@ public class PlayerInstance extends Playable
 			_hennaWIT += ((_hennaWIT + h.getStatWIT()) > 5) ? 5 - _hennaWIT : h.getStatWIT();
 			_hennaDEX += ((_hennaDEX + h.getStatDEX()) > 5) ? 5 - _hennaDEX : h.getStatDEX();
 		}
+		getStat().invalidateStatCache();
 	}
 	
 	/**
@@ -9672,6 +9692,7 @@ public class PlayerInstance extends Playable
 	public void setInOlympiadMode(boolean value)
 	{
 		_inOlympiadMode = value;
+		getStat().invalidateStatCache();
 	}
 	
 	public void setOlympiadStart(boolean value)
@@ -41,6 +41,7 @@ import org.l2jmobius.gameserver.model.zone.ZoneId;
 import org.l2jmobius.gameserver.network.SystemMessageId;
 import org.l2jmobius.gameserver.network.serverpackets.AbstractNpcInfo.TrapInfo;
 import org.l2jmobius.gameserver.network.serverpackets.IClientOutgoingPacket;
+import org.l2jmobius.gameserver.network.serverpackets.SharedClientPacket;
 import org.l2jmobius.gameserver.network.serverpackets.SystemMessage;
 import org.l2jmobius.gameserver.taskmanager.DecayTaskManager;
 
@@ -103,25 +104,41 @@ public class TrapInstance extends Npc
 	@Override
 	public void broadcastPacket(IClientOutgoingPacket mov)
 	{
-		World.getInstance().forEachVisibleObject(this, PlayerInstance.class, player ->
+		final IClientOutgoingPacket packet = SharedClientPacket.of(mov);
+		try
 		{
-			if (_isTriggered || canBeSeen(player))
+			World.getInstance().forEachVisibleObject(this, PlayerInstance.class, player ->
 			{
-				player.sendPacket(mov);
-			}
-		});
+				if (_isTriggered || canBeSeen(player))
+				{
+					player.sendPacket(packet);
+				}
+			});
+		}
+		finally
+		{
+			SharedClientPacket.release(packet);
+		}
 	}
 	
 	@Override
 	public void broadcastPacket(IClientOutgoingPacket mov, int radiusInKnownlist)
 	{
-		World.getInstance().forEachVisibleObjectInRange(this, PlayerInstance.class, radiusInKnownlist, player ->
+		final IClientOutgoingPacket packet = SharedClientPacket.of(mov);
+		try
 		{
-			if (_isTriggered || canBeSeen(player))
+			World.getInstance().forEachVisibleObjectInRange(this, PlayerInstance.class, radiusInKnownlist, player ->
 			{
-				player.sendPacket(mov);
-			}
-		});
+				if (_isTriggered || canBeSeen(player))
+				{
+					player.sendPacket(packet);
+				}
+			});
+		}
+		finally
+		{
+			SharedClientPacket.release(packet);
+		}
 	}
 	
 	/**
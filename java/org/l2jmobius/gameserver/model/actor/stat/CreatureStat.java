@@ -17,6 +17,8 @@
 package org.l2jmobius.gameserver.model.actor.stat;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.l2jmobius.Config;
 import org.l2jmobius.gameserver.model.Elementals;
@@ -36,6 +38,22 @@ public class CreatureStat
 {
 	private static final int DIVINE_INSPIRATION = 1405;
 	
+	// Stats other functions read through the Creature.
+	private static final Stat[] BASE_STATS =
+	{
+		Stat.STAT_STR,
+		Stat.STAT_CON,
+		Stat.STAT_DEX,
+		Stat.STAT_INT,
+		Stat.STAT_WIT,
+		Stat.STAT_MEN
+	};
+	
+	// Stat cache counters, shared by all creatures.
+	private static final LongAdder CACHE_HITS = new LongAdder();
+	private static final LongAdder CACHE_MISSES = new LongAdder();
+	private static final LongAdder CACHE_SAVED_FUNCTIONS = new LongAdder();
+	
 	private final Creature _creature;
 	private long _exp = 0;
 	private long _sp = 0;
@@ -49,6 +67,10 @@ public class CreatureStat
 	private int _maxBuffCount = Config.BUFFS_MAX_AMOUNT;
 	/** Speed multiplier set by admin gmspeed command */
 	private double _gmSpeedMultiplier = 1;
+	/** Raised on each change of functions, equipment, level or transformation, which makes all cached stats stale. */
+	private final AtomicInteger _statVersion = new AtomicInteger();
+	/** Cached stats by stat ordinal, created on first use. */
+	private StatCacheEntry[] _statCache;
 	
 	public CreatureStat(Creature creature)
 	{
@@ -86,7 +108,8 @@ public class CreatureStat
 		}
 		
 		final int id = stat.ordinal();
-		final Calculator c = _creature.getCalculators()[id];
+		final Calculator[] calculators = _creature.getCalculators();
+		final Calculator c = calculators[id];
 		
 		// If no Func object found, no modifier is applied
 		if ((c == null) || (c.size() == 0))
@@ -94,6 +117,64 @@ public class CreatureStat
 			return value;
 		}
 		
+		// Functions without conditions do not use target and skill, so their result only changes along with the stat version.
+		if (!Config.STAT_CACHE || c.isVolatile() || hasVolatileBaseStats(calculators))
+		{
+			return calcStat(stat, c, value, target, skill);
+		}
+		
+		StatCacheEntry[] cache = _statCache;
+		if (cache == null)
+		{
+			cache = new StatCacheEntry[Stat.NUM_STATS];
+			_statCache = cache;
+		}
+		
+		final int version = _statVersion.get();
+		final StatCacheEntry entry = cache[id];
+		if ((entry != null) && (entry._version == version) && (entry._initVal == initVal))
+		{
+			CACHE_HITS.increment();
+			CACHE_SAVED_FUNCTIONS.add(c.size());
+			return entry._value;
+		}
+		
+		CACHE_MISSES.increment();
+		value = calcStat(stat, c, value, null, null);
+		cache[id] = new StatCacheEntry(version, initVal, value);
+		return value;
+	}
+	
+	/**
+	 * @param calculators The calculators of the Creature
+	 * @return True if a base stat (STR, CON...) has functions whose result can change without the stat version.
+	 */
+	private static boolean hasVolatileBaseStats(Calculator[] calculators)
+	{
+		for (Stat stat : BASE_STATS)
+		{
+			final Calculator c = calculators[stat.ordinal()];
+			if ((c != null) && c.isVolatile())
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Calculate the new value of the state with the functions of its calculator.
+	 * @param stat The stat to calculate the new value with modifiers
+	 * @param c The calculator of the stat
+	 * @param initVal The initial value of the stat before applying modifiers
+	 * @param target The Creature whose properties will be used in the calculation (ex : CON, INT...)
+	 * @param skill The Skill whose properties will be used in the calculation (ex : Level...)
+	 * @return
+	 */
+	private double calcStat(Stat stat, Calculator c, double initVal, Creature target, Skill skill)
+	{
+		double value = initVal;
+		
 		// Apply transformation stats.
 		final Transform transform = _creature.getTransformation();
 		if (transform != null)
@@ -225,6 +306,31 @@ public class CreatureStat
 	public void setLevel(byte value)
 	{
 		_level = value;
+		invalidateStatCache();
+	}
+	
+	/**
+	 * Makes all cached stats of the Creature stale.<br>
+	 * Called on each change stat functions do not see through their calculator: functions added or removed, equipment, enchant, level, transformation, hennas...
+	 */
+	public void invalidateStatCache()
+	{
+		_statVersion.incrementAndGet();
+	}
+	
+	/**
+	 * @return the stat cache counters of all creatures.
+	 */
+	public static String[] getCacheStats()
+	{
+		final long hits = CACHE_HITS.sum();
+		final long total = hits + CACHE_MISSES.sum();
+		return new String[]
+		{
+			"Stat cache:",
+			" |- Hits: " + hits + " of " + total + " (" + (total == 0 ? 0 : (hits * 100) / total) + "%)",
+			" |- Saved function evaluations: " + CACHE_SAVED_FUNCTIONS.sum()
+		};
 	}
 	
 	/**
@@ -814,4 +920,18 @@ public class CreatureStat
 	{
 		_maxBuffCount = buffCount;
 	}
+	
+	private static class StatCacheEntry
+	{
+		protected final int _version;
+		protected final double _initVal;
+		protected final double _value;
+		
+		protected StatCacheEntry(int version, double initVal, double value)
+		{
+			_version = version;
+			_initVal = initVal;
+			_value = value;
+		}
+	}
 }
@@ -489,6 +489,7 @@ public class PlayerStat extends PlayableStat
 		if (getActiveChar().isSubClassActive())
 		{
 			getActiveChar().getSubClasses().get(getActiveChar().getClassIndex()).setLevel(value);
+			invalidateStatCache();
 		}
 		else
 		{
@@ -18,14 +18,13 @@ package org.l2jmobius.gameserver.model.actor.status;
 
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
-import org.l2jmobius.commons.concurrent.ThreadPool;
 import org.l2jmobius.commons.util.Rnd;
 import org.l2jmobius.gameserver.model.actor.Creature;
 import org.l2jmobius.gameserver.model.actor.instance.PlayerInstance;
 import org.l2jmobius.gameserver.model.stats.Formulas;
+import org.l2jmobius.gameserver.taskmanager.RegenerationTaskManager;
 
 public class CreatureStatus
 {
@@ -39,7 +38,7 @@ public class CreatureStatus
 	/** Array containing all clients that need to be notified about hp/mp updates of the Creature */
 	private Set<Creature> _statusListener;
 	
-	private Future<?> _regTask;
+	private boolean _regenerating = false;
 	
 	protected byte _flagsRegenActive = 0;
 	
@@ -197,13 +196,14 @@ public class CreatureStatus
 	 */
 	public synchronized void startHpMpRegeneration()
 	{
-		if ((_regTask == null) && !_creature.isDead())
+		if (!_regenerating && !_creature.isDead())
 		{
 			// Get the Regeneration period
 			final int period = Formulas.getRegeneratePeriod(_creature);
 			
-			// Create the HP/MP/CP Regeneration task
-			_regTask = ThreadPool.scheduleAtFixedRate(this::doRegeneration, period, period);
+			// Add to the HP/MP/CP Regeneration task
+			RegenerationTaskManager.getInstance().add(this, period);
+			_regenerating = true;
 		}
 	}
 	
@@ -218,11 +218,11 @@ public class CreatureStatus
 	 */
 	public synchronized void stopHpMpRegeneration()
 	{
-		if (_regTask != null)
+		if (_regenerating)
 		{
 			// Stop the HP/MP/CP Regeneration task
-			_regTask.cancel(false);
-			_regTask = null;
+			RegenerationTaskManager.getInstance().remove(this);
+			_regenerating = false;
 			
 			// Set the RegenActive flag to false
 			_flagsRegenActive = 0;
@@ -376,7 +376,7 @@ public class CreatureStatus
 		return mpWasChanged;
 	}
 	
-	protected void doRegeneration()
+	public void doRegeneration()
 	{
 		// Modify the current HP/MP of the Creature and broadcast Server->Client packet StatusUpdate
 		if (!_creature.isDead() && ((_currentHp < _creature.getMaxRecoverableHp()) || (_currentMp < _creature.getMaxRecoverableMp())))
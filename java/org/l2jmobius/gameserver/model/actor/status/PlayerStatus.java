@@ -383,7 +383,7 @@ public class PlayerStatus extends PlayableStatus
 	}
 	
 	@Override
-	protected void doRegeneration()
+	public void doRegeneration()
 	{
 		final PlayerStat charstat = getActiveChar().getStat();
 		
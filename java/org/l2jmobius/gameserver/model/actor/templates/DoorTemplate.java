@@ -30,6 +30,10 @@ public class DoorTemplate extends CreatureTemplate implements IIdentifiable
 	private final int[] _nodeX;
 	private final int[] _nodeY;
 	private final int _nodeZ;
+	private final int _nodeXMin;
+	private final int _nodeXMax;
+	private final int _nodeYMin;
+	private final int _nodeYMax;
 	private final int _height;
 	private final int _posX;
 	private final int _posY;
@@ -75,6 +79,10 @@ public class DoorTemplate extends CreatureTemplate implements IIdentifiable
 			_nodeX[i] = Integer.parseInt(split[0]);
 			_nodeY[i] = Integer.parseInt(split[1]);
 		}
+		_nodeXMin = Math.min(Math.min(_nodeX[0], _nodeX[1]), Math.min(_nodeX[2], _nodeX[3]));
+		_nodeXMax = Math.max(Math.max(_nodeX[0], _nodeX[1]), Math.max(_nodeX[2], _nodeX[3]));
+		_nodeYMin = Math.min(Math.min(_nodeY[0], _nodeY[1]), Math.min(_nodeY[2], _nodeY[3]));
+		_nodeYMax = Math.max(Math.max(_nodeY[0], _nodeY[1]), Math.max(_nodeY[2], _nodeY[3]));
 		_posX = Integer.parseInt(pos[0]);
 		_posY = Integer.parseInt(pos[1]);
 		_posZ = Math.min(Integer.parseInt(pos[2]), _nodeZ);
@@ -136,6 +144,26 @@ public class DoorTemplate extends CreatureTemplate implements IIdentifiable
 		return _nodeZ;
 	}
 	
+	public int getNodeXMin()
+	{
+		return _nodeXMin;
+	}
+	
+	public int getNodeXMax()
+	{
+		return _nodeXMax;
+	}
+	
+	public int getNodeYMin()
+	{
+		return _nodeYMin;
+	}
+	
+	public int getNodeYMax()
+	{
+		return _nodeYMax;
+	}
+	
 	public int getHeight()
 	{
 		return _height;
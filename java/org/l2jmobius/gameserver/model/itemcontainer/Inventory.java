@@ -1118,6 +1118,13 @@ public abstract class Inventory extends ItemContainer
 				}
 				item.updateDatabase();
 			}
+			
+			// Formulas read equipped items (armor sets, defence of empty slots...).
+			final Creature owner = getOwner();
+			if (owner != null)
+			{
+				owner.getStat().invalidateStatCache();
+			}
 		}
 		
 		// Notify to scripts
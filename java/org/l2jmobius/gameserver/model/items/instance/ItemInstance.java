@@ -874,6 +874,16 @@ public class ItemInstance extends WorldObject
 		_enchantLevel = enchantLevel;
 		applyEnchantStats();
 		_storedInDb = false;
+		
+		// Enchant functions read the enchant level of equipped items.
+		if (isEquipped())
+		{
+			final PlayerInstance player = getActingPlayer();
+			if (player != null)
+			{
+				player.getStat().invalidateStatCache();
+			}
+		}
 	}
 	
 	/**
@@ -19,6 +19,7 @@ package org.l2jmobius.gameserver.model.stats;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.l2jmobius.Config;
 import org.l2jmobius.gameserver.model.actor.Creature;
 import org.l2jmobius.gameserver.model.skills.Skill;
 import org.l2jmobius.gameserver.model.stats.functions.AbstractFunction;
@@ -39,6 +40,10 @@ public class Calculator
 	
 	/** Table of Func object */
 	private AbstractFunction[] _functions;
+	/** True if a Func result can change without the Func table changing */
+	private boolean _volatile;
+	/** Flattened Func table, compiled again on first calc after the Func table has changed */
+	private StatPipeline _pipeline;
 	
 	/**
 	 * Constructor of Calculator (Init value : emptyFuncs).
@@ -55,6 +60,8 @@ public class Calculator
 	public Calculator(Calculator c)
 	{
 		_functions = c._functions;
+		_volatile = c._volatile;
+		_pipeline = c._pipeline;
 	}
 	
 	/**
@@ -133,6 +140,7 @@ public class Calculator
 		}
 		
 		_functions = tmp;
+		_volatile |= function.isVolatile();
 	}
 	
 	/**
@@ -167,6 +175,20 @@ public class Calculator
 		{
 			_functions = tmp;
 		}
+		
+		if (function.isVolatile())
+		{
+			boolean isVolatile = false;
+			for (AbstractFunction func : _functions)
+			{
+				if (func.isVolatile())
+				{
+					isVolatile = true;
+					break;
+				}
+			}
+			_volatile = isVolatile;
+		}
 	}
 	
 	/**
@@ -188,6 +210,15 @@ public class Calculator
 		return modifiedStats;
 	}
 	
+	/**
+	 * Check if a function of the Calculator has a condition or reads state it is not notified about, so its result can not be cached.
+	 * @return
+	 */
+	public boolean isVolatile()
+	{
+		return _volatile;
+	}
+	
 	/**
 	 * Run each function of the Calculator.
 	 * @param caster the caster
@@ -198,8 +229,20 @@ public class Calculator
 	 */
 	public double calc(Creature caster, Creature target, Skill skill, double initVal)
 	{
+		final AbstractFunction[] functions = _functions;
+		if (Config.COMPILE_STAT_FUNCTIONS)
+		{
+			StatPipeline pipeline = _pipeline;
+			if ((pipeline == null) || !pipeline.isCompiledFrom(functions))
+			{
+				pipeline = new StatPipeline(functions);
+				_pipeline = pipeline;
+			}
+			return pipeline.calc(caster, target, skill, initVal);
+		}
+		
 		double value = initVal;
-		for (AbstractFunction func : _functions)
+		for (AbstractFunction func : functions)
 		{
 			value = func.calc(caster, target, skill, value);
 		}
@@ -0,0 +1,234 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.model.stats;
+
+import org.l2jmobius.gameserver.model.actor.Creature;
+import org.l2jmobius.gameserver.model.skills.Skill;
+import org.l2jmobius.gameserver.model.stats.functions.AbstractFunction;
+import org.l2jmobius.gameserver.model.stats.functions.FuncAdd;
+import org.l2jmobius.gameserver.model.stats.functions.FuncDiv;
+import org.l2jmobius.gameserver.model.stats.functions.FuncMul;
+import org.l2jmobius.gameserver.model.stats.functions.FuncSet;
+import org.l2jmobius.gameserver.model.stats.functions.FuncSub;
+
+/**
+ * Flattened form of the Func table of a Calculator.<br>
+ * Consecutive unconditional add/sub functions with whole values are summed in a single step and consecutive unconditional mul functions are multiplied in a single step when the product is exact.<br>
+ * Only constants which fold without rounding are folded, and div functions keep their own division step, so the result stays as close as possible to running each function.<br>
+ * An unconditional set function drops all steps before it. Other functions are kept as they are and run in their order.
+ * @author Mobius
+ */
+class StatPipeline
+{
+	private static final byte FUNCTION = 0;
+	private static final byte ADD = 1;
+	private static final byte MUL = 2;
+	private static final byte SET = 3;
+	private static final byte DIV = 4;
+	
+	/** Func table this pipeline was compiled from */
+	private final AbstractFunction[] _source;
+	private final byte[] _types;
+	private final double[] _values;
+	private final AbstractFunction[] _functions;
+	private final int _size;
+	
+	protected StatPipeline(AbstractFunction[] source)
+	{
+		_source = source;
+		_types = new byte[source.length];
+		_values = new double[source.length];
+		_functions = new AbstractFunction[source.length];
+		
+		int size = 0;
+		for (AbstractFunction func : source)
+		{
+			final byte type = getType(func);
+			switch (type)
+			{
+				case ADD:
+				{
+					final double value = getValue(func);
+					if ((size > 0) && (_types[size - 1] == ADD) && isWhole(_values[size - 1]) && isWhole(value))
+					{
+						_values[size - 1] += value;
+					}
+					else
+					{
+						_types[size] = ADD;
+						_values[size] = value;
+						size++;
+					}
+					break;
+				}
+				case MUL:
+				{
+					final double value = func.getValue();
+					if ((size > 0) && (_types[size - 1] == MUL) && isExactProduct(_values[size - 1], value))
+					{
+						_values[size - 1] *= value;
+					}
+					else
+					{
+						_types[size] = MUL;
+						_values[size] = value;
+						size++;
+					}
+					break;
+				}
+				case DIV:
+				{
+					_types[size] = DIV;
+					_values[size] = func.getValue();
+					size++;
+					break;
+				}
+				case SET:
+				{
+					// Value is replaced, previous steps are useless.
+					size = 0;
+					_types[size] = SET;
+					_values[size] = func.getValue();
+					size++;
+					break;
+				}
+				default:
+				{
+					_types[size] = FUNCTION;
+					_functions[size] = func;
+					size++;
+					break;
+				}
+			}
+		}
+		_size = size;
+	}
+	
+	/**
+	 * @param func the function
+	 * @return the step type of the function
+	 */
+	private static byte getType(AbstractFunction func)
+	{
+		if (func.getApplayCond() != null)
+		{
+			return FUNCTION;
+		}
+		
+		final Class<?> type = func.getClass();
+		if ((type == FuncAdd.class) || (type == FuncSub.class))
+		{
+			return ADD;
+		}
+		if (type == FuncMul.class)
+		{
+			return MUL;
+		}
+		if (type == FuncDiv.class)
+		{
+			return DIV;
+		}
+		if (type == FuncSet.class)
+		{
+			return SET;
+		}
+		return FUNCTION;
+	}
+	
+	/**
+	 * @param func the add or sub function
+	 * @return the value to add
+	 */
+	private static double getValue(AbstractFunction func)
+	{
+		return func.getClass() == FuncSub.class ? -func.getValue() : func.getValue();
+	}
+	
+	/**
+	 * @param value the value
+	 * @return true if the value is a whole number small enough to be summed without rounding
+	 */
+	private static boolean isWhole(double value)
+	{
+		return (value == Math.rint(value)) && (Math.abs(value) < 0x1p52);
+	}
+	
+	/**
+	 * @param a the first multiplier
+	 * @param b the second multiplier
+	 * @return true if the product of the multipliers is exact
+	 */
+	private static boolean isExactProduct(double a, double b)
+	{
+		final double product = a * b;
+		return Double.isFinite(product) && (Math.fma(a, b, -product) == 0);
+	}
+	
+	/**
+	 * @param functions the Func table of the Calculator
+	 * @return true if this pipeline was compiled from the given Func table
+	 */
+	protected boolean isCompiledFrom(AbstractFunction[] functions)
+	{
+		return _source == functions;
+	}
+	
+	/**
+	 * Run each step of the pipeline.
+	 * @param caster the caster
+	 * @param target the target
+	 * @param skill the skill
+	 * @param initVal the initial value
+	 * @return the calculated value
+	 */
+	protected double calc(Creature caster, Creature target, Skill skill, double initVal)
+	{
+		double value = initVal;
+		for (int i = 0; i < _size; i++)
+		{
+			switch (_types[i])
+			{
+				case ADD:
+				{
+					value += _values[i];
+					break;
+				}
+				case MUL:
+				{
+					value *= _values[i];
+					break;
+				}
+				case DIV:
+				{
+					value /= _values[i];
+					break;
+				}
+				case SET:
+				{
+					value = _values[i];
+					break;
+				}
+				default:
+				{
+					value = _functions[i].calc(caster, target, skill, value);
+					break;
+				}
+			}
+		}
+		return value;
+	}
+}
\ No newline at end of file
@@ -118,6 +118,16 @@ public abstract class AbstractFunction
 		return _value;
 	}
 	
+	/**
+	 * Functions with a condition may use the effected creature, the skill or any state of the effector.<br>
+	 * Their result can not be cached.
+	 * @return {@code true} if the result of this function can change while the function stays in its calculator
+	 */
+	public boolean isVolatile()
+	{
+		return _applayCond != null;
+	}
+	
 	/**
 	 * Run the mathematics function of the Func.
 	 * @param effector the effector
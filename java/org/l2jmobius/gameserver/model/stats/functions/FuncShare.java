@@ -33,6 +33,13 @@ public class FuncShare extends AbstractFunction
 		super(stat, order, owner, value, applayCond);
 	}
 	
+	@Override
+	public boolean isVolatile()
+	{
+		// Uses the stats of the servitor owner.
+		return true;
+	}
+	
 	@Override
 	public double calc(Creature effector, Creature effected, Skill skill, double initVal)
 	{
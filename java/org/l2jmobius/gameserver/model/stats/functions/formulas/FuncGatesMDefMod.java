@@ -40,6 +40,13 @@ public class FuncGatesMDefMod extends AbstractFunction
 		super(Stat.MAGIC_DEFENCE, 1, null, 0, null);
 	}
 	
+	@Override
+	public boolean isVolatile()
+	{
+		// Uses the current Seven Signs seal owner.
+		return true;
+	}
+	
 	@Override
 	public double calc(Creature effector, Creature effected, Skill skill, double initVal)
 	{
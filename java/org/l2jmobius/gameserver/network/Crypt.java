@@ -21,20 +21,17 @@ import org.l2jmobius.commons.network.ICrypt;
 import io.netty.buffer.ByteBuf;
 
 /**
+ * The game client XOR cipher, working in place over the buffer eight bytes at a time.
  * @author UnAfraid, Nos
  */
 public class Crypt implements ICrypt
 {
-	// private final GameClient _client;
+	private static final long BYTE_MASK = 0x0101010101010101L;
+	
 	private final byte[] _inKey = new byte[16];
 	private final byte[] _outKey = new byte[16];
 	private boolean _isEnabled;
 	
-	public Crypt(GameClient client)
-	{
-		// _client = client;
-	}
-	
 	public void setKey(byte[] key)
 	{
 		System.arraycopy(key, 0, _inKey, 0, 16);
@@ -47,21 +44,43 @@ public class Crypt implements ICrypt
 		if (!_isEnabled)
 		{
 			_isEnabled = true;
-			onPacketSent(buf);
 			return;
 		}
 		
-		onPacketSent(buf);
-		
+		final long key0 = getKeyLong(_outKey, 0);
+		final long key1 = getKeyLong(_outKey, 8);
+		final int end = buf.writerIndex();
+		int index = buf.readerIndex();
 		int a = 0;
-		while (buf.isReadable())
+		
+		// Single bytes until the index is aligned with the key halves.
+		while (((index & 7) != 0) && (index < end))
+		{
+			a = (buf.getByte(index) & 0xFF) ^ _outKey[index & 15] ^ a;
+			buf.setByte(index++, a);
+		}
+		
+		// Each encrypted byte is the XOR of all previous plain and key bytes, computed as a prefix XOR over eight bytes.
+		while ((index + 8) <= end)
+		{
+			long value = buf.getLongLE(index) ^ (((index & 8) == 0) ? key0 : key1);
+			value ^= value << 8;
+			value ^= value << 16;
+			value ^= value << 32;
+			value ^= (a & 0xFF) * BYTE_MASK;
+			buf.setLongLE(index, value);
+			a = (int) (value >>> 56);
+			index += 8;
+		}
+		
+		while (index < end)
 		{
-			final int b = buf.readByte() & 0xFF;
-			a = b ^ _outKey[(buf.readerIndex() - 1) & 15] ^ a;
-			buf.setByte(buf.readerIndex() - 1, a);
+			a = (buf.getByte(index) & 0xFF) ^ _outKey[index & 15] ^ a;
+			buf.setByte(index++, a);
 		}
 		
-		shiftKey(_outKey, buf.writerIndex());
+		buf.readerIndex(end);
+		shiftKey(_outKey, end);
 	}
 	
 	@Override
@@ -69,35 +88,53 @@ public class Crypt implements ICrypt
 	{
 		if (!_isEnabled)
 		{
-			onPacketReceive(buf);
 			return;
 		}
 		
+		final long key0 = getKeyLong(_inKey, 0);
+		final long key1 = getKeyLong(_inKey, 8);
+		final int end = buf.writerIndex();
+		int index = buf.readerIndex();
 		int a = 0;
-		while (buf.isReadable())
+		
+		// Single bytes until the index is aligned with the key halves.
+		while (((index & 7) != 0) && (index < end))
 		{
-			final int b = buf.readByte() & 0xFF;
-			buf.setByte(buf.readerIndex() - 1, b ^ _inKey[(buf.readerIndex() - 1) & 15] ^ a);
+			final int b = buf.getByte(index) & 0xFF;
+			buf.setByte(index, b ^ _inKey[index & 15] ^ a);
 			a = b;
+			index++;
 		}
 		
-		shiftKey(_inKey, buf.writerIndex());
+		// Each plain byte only depends on its own and the previous encrypted byte.
+		while ((index + 8) <= end)
+		{
+			final long value = buf.getLongLE(index);
+			buf.setLongLE(index, value ^ (((index & 8) == 0) ? key0 : key1) ^ ((value << 8) | (a & 0xFF)));
+			a = (int) (value >>> 56);
+			index += 8;
+		}
 		
-		onPacketReceive(buf);
-	}
-	
-	private void onPacketSent(ByteBuf buf)
-	{
-		final byte[] data = new byte[buf.writerIndex()];
-		buf.getBytes(0, data);
-		// EventDispatcher.getInstance().notifyEvent(new OnPacketSent(_client, data));
+		while (index < end)
+		{
+			final int b = buf.getByte(index) & 0xFF;
+			buf.setByte(index, b ^ _inKey[index & 15] ^ a);
+			a = b;
+			index++;
+		}
+		
+		buf.readerIndex(end);
+		shiftKey(_inKey, end);
 	}
 	
-	private void onPacketReceive(ByteBuf buf)
+	private long getKeyLong(byte[] key, int offset)
 	{
-		final byte[] data = new byte[buf.writerIndex()];
-		buf.getBytes(0, data);
-		// EventDispatcher.getInstance().notifyEvent(new OnPacketReceived(_client, data));
+		long value = 0;
+		for (int i = 7; i >= 0; i--)
+		{
+			value = (value << 8) | (key[offset + i] & 0xFF);
+		}
+		return value;
 	}
 	
 	private void shiftKey(byte[] key, int size)
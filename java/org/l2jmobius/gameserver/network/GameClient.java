@@ -21,11 +21,17 @@ import java.net.InetSocketAddress;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.l2jmobius.Config;
+import org.l2jmobius.commons.concurrent.ThreadPool;
 import org.l2jmobius.commons.database.DatabaseFactory;
 import org.l2jmobius.commons.network.ChannelInboundHandler;
 import org.l2jmobius.commons.network.ICrypt;
@@ -47,6 +53,7 @@ import org.l2jmobius.gameserver.network.serverpackets.IClientOutgoingPacket;
 import org.l2jmobius.gameserver.network.serverpackets.LeaveWorld;
 import org.l2jmobius.gameserver.network.serverpackets.NpcSay;
 import org.l2jmobius.gameserver.network.serverpackets.ServerClose;
+import org.l2jmobius.gameserver.network.serverpackets.SharedClientPacket;
 import org.l2jmobius.gameserver.network.serverpackets.SystemMessage;
 import org.l2jmobius.gameserver.security.SecondaryPasswordAuth;
 import org.l2jmobius.gameserver.util.FloodProtectors;
@@ -63,9 +70,19 @@ public class GameClient extends ChannelInboundHandler<GameClient>
 	protected static final Logger LOGGER = Logger.getLogger(GameClient.class.getName());
 	protected static final Logger LOGGER_ACCOUNTING = Logger.getLogger("accounting");
 	
+	private static final LongAdder WRITTEN_PACKETS = new LongAdder();
+	private static final LongAdder FLUSHES = new LongAdder();
+	
+	/** Queued after the packet still running when the connection closes. */
+	private static final QueuedPacket DISCONNECTION = new QueuedPacket(null, null);
+	
 	private final FloodProtectors _floodProtectors = new FloodProtectors(this);
 	private final ReentrantLock _playerLock = new ReentrantLock();
 	private final Crypt _crypt;
+	private final AtomicBoolean _flushScheduled = new AtomicBoolean();
+	private final Runnable _flushTask = this::flush;
+	private final Queue<QueuedPacket> _queuedPackets = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean _runningQueuedPackets = new AtomicBoolean();
 	private InetAddress _addr;
 	private Channel _channel;
 	private String _accountName;
@@ -81,7 +98,7 @@ public class GameClient extends ChannelInboundHandler<GameClient>
 	
 	public GameClient()
 	{
-		_crypt = new Crypt(this);
+		_crypt = new Crypt();
 	}
 	
 	@Override
@@ -102,6 +119,26 @@ public class GameClient extends ChannelInboundHandler<GameClient>
 		LOGGER_ACCOUNTING.finer("Client Disconnected: " + ctx.channel());
 		LoginServerThread.getInstance().sendLogout(getAccountName());
 		
+		// Packets still queued are dropped, they must not run after the disconnection.
+		_queuedPackets.clear();
+		
+		// A queued packet may still be running, the disconnection runs after it on the same thread.
+		// No packet is queued after this point, reads of the channel are over.
+		if (_runningQueuedPackets.get())
+		{
+			_queuedPackets.offer(DISCONNECTION);
+			if (_runningQueuedPackets.compareAndSet(false, true))
+			{
+				ThreadPool.execute(this::runQueuedPackets);
+			}
+			return;
+		}
+		
+		onDisconnection();
+	}
+	
+	private void onDisconnection()
+	{
 		if ((_player == null) || !_player.isInOfflineMode())
 		{
 			Disconnection.of(this).onDisconnection();
@@ -110,6 +147,49 @@ public class GameClient extends ChannelInboundHandler<GameClient>
 	
 	@Override
 	protected void channelRead0(ChannelHandlerContext ctx, IIncomingPacket<GameClient> packet)
+	{
+		// Packets of a client always run in order, so a packet can only run on the network thread when no queued packet is pending.
+		if (!Config.OFFLOAD_BLOCKING_PACKETS || (!packet.isBlocking() && _queuedPackets.isEmpty() && !_runningQueuedPackets.get()))
+		{
+			runPacket(packet);
+			return;
+		}
+		
+		_queuedPackets.offer(new QueuedPacket(packet, _player));
+		if (_runningQueuedPackets.compareAndSet(false, true))
+		{
+			ThreadPool.execute(this::runQueuedPackets);
+		}
+	}
+	
+	private void runQueuedPackets()
+	{
+		do
+		{
+			QueuedPacket queued;
+			while ((queued = _queuedPackets.poll()) != null)
+			{
+				if (queued == DISCONNECTION)
+				{
+					onDisconnection();
+					continue;
+				}
+				
+				// Skip packets of a closed connection, or of a player who left the game after they were queued.
+				if ((_channel == null) || !_channel.isActive() || ((queued._player != null) && (queued._player != _player)))
+				{
+					continue;
+				}
+				
+				runPacket(queued._packet);
+			}
+			_runningQueuedPackets.set(false);
+		}
+		// A packet may have been queued after the last poll.
+		while (!_queuedPackets.isEmpty() && _runningQueuedPackets.compareAndSet(false, true));
+	}
+	
+	private void runPacket(IIncomingPacket<GameClient> packet)
 	{
 		try
 		{
@@ -121,6 +201,19 @@ public class GameClient extends ChannelInboundHandler<GameClient>
 		}
 	}
 	
+	private static class QueuedPacket
+	{
+		protected final IIncomingPacket<GameClient> _packet;
+		/** The player of the client when the packet was received. */
+		protected final PlayerInstance _player;
+		
+		protected QueuedPacket(IIncomingPacket<GameClient> packet, PlayerInstance player)
+		{
+			_packet = packet;
+			_player = player;
+		}
+	}
+	
 	@Override
 	public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause)
 	{
@@ -130,6 +223,8 @@ public class GameClient extends ChannelInboundHandler<GameClient>
 	{
 		if (_channel != null)
 		{
+			// Do not lose packets still waiting for a flush.
+			_channel.flush();
 			_channel.close();
 		}
 	}
@@ -253,12 +348,65 @@ public class GameClient extends ChannelInboundHandler<GameClient>
 		}
 		
 		// Write into the channel.
-		_channel.writeAndFlush(packet);
+		// Each write of a shared packet consumes one reference.
+		final Object message = (packet instanceof SharedClientPacket) ? ((SharedClientPacket) packet).retain() : packet;
+		WRITTEN_PACKETS.increment();
+		if (Config.PACKET_FLUSH_DELAY < 0)
+		{
+			FLUSHES.increment();
+			_channel.writeAndFlush(message);
+		}
+		else
+		{
+			_channel.write(message);
+			scheduleFlush();
+		}
 		
 		// Run packet implementation.
 		packet.runImpl(_player);
 	}
 	
+	/**
+	 * Schedules a single flush for all packets written until it runs, on the event loop of this client.
+	 */
+	private void scheduleFlush()
+	{
+		if (_flushScheduled.compareAndSet(false, true))
+		{
+			if (Config.PACKET_FLUSH_DELAY > 0)
+			{
+				_channel.eventLoop().schedule(_flushTask, Config.PACKET_FLUSH_DELAY, TimeUnit.MILLISECONDS);
+			}
+			else
+			{
+				_channel.eventLoop().execute(_flushTask);
+			}
+		}
+	}
+	
+	private void flush()
+	{
+		// Allow packets written from now on to schedule another flush.
+		_flushScheduled.set(false);
+		FLUSHES.increment();
+		_channel.flush();
+	}
+	
+	public static String[] getStats()
+	{
+		final long packets = WRITTEN_PACKETS.sum();
+		final long flushes = FLUSHES.sum();
+		final String[] stats = new String[4];
+		int pos = 0;
+		
+		stats[pos++] = "Outgoing packets:";
+		stats[pos++] = " |- WrittenPackets: ... " + packets;
+		stats[pos++] = " |- Flushes: .......... " + flushes;
+		stats[pos++] = " |- PacketsPerFlush: .. " + (flushes > 0 ? String.format("%.2f", (double) packets / flushes) : "0");
+		
+		return stats;
+	}
+	
 	/**
 	 * @param smId
 	 */
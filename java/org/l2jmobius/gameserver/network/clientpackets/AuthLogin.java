@@ -47,6 +47,12 @@ public class AuthLogin implements IClientIncomingPacket
 		return true;
 	}
 	
+	@Override
+	public boolean isBlocking()
+	{
+		return true;
+	}
+	
 	@Override
 	public void run(GameClient client)
 	{
@@ -83,6 +83,12 @@ public class CharacterCreate implements IClientIncomingPacket
 		return true;
 	}
 	
+	@Override
+	public boolean isBlocking()
+	{
+		return true;
+	}
+	
 	@Override
 	public void run(GameClient client)
 	{
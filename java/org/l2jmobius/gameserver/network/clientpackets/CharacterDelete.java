@@ -43,6 +43,12 @@ public class CharacterDelete implements IClientIncomingPacket
 		return true;
 	}
 	
+	@Override
+	public boolean isBlocking()
+	{
+		return true;
+	}
+	
 	@Override
 	public void run(GameClient client)
 	{
@@ -38,6 +38,12 @@ public class CharacterRestore implements IClientIncomingPacket
 		return true;
 	}
 	
+	@Override
+	public boolean isBlocking()
+	{
+		return true;
+	}
+	
 	@Override
 	public void run(GameClient client)
 	{
@@ -71,6 +71,12 @@ public class CharacterSelect implements IClientIncomingPacket
 		return true;
 	}
 	
+	@Override
+	public boolean isBlocking()
+	{
+		return true;
+	}
+	
 	@Override
 	public void run(GameClient client)
 	{
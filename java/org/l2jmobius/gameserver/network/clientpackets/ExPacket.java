@@ -51,6 +51,12 @@ public class ExPacket implements IClientIncomingPacket
 		return (_exPacket != null) && _exPacket.read(client, packet);
 	}
 	
+	@Override
+	public boolean isBlocking()
+	{
+		return (_exPacket != null) && _exPacket.isBlocking();
+	}
+	
 	@Override
 	public void run(GameClient client) throws Exception
 	{
@@ -19,12 +19,12 @@ package org.l2jmobius.gameserver.network.loginserver;
 import java.util.logging.Logger;
 
 import org.l2jmobius.Config;
+import org.l2jmobius.commons.network.NetworkTransport;
 import org.l2jmobius.gameserver.network.EventLoopGroupManager;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.socket.nio.NioSocketChannel;
 
 /**
  * @author NosBit
@@ -42,7 +42,7 @@ public class LoginServerNetworkManager
 		//@formatter:off
 		_bootstrap = new Bootstrap()
 			.group(EventLoopGroupManager.getInstance().getWorkerGroup())
-			.channel(NioSocketChannel.class)
+			.channel(NetworkTransport.getChannelClass())
 			.option(ChannelOption.SO_KEEPALIVE, true)
 			.handler(new LoginServerInitializer());
 		//@formatter:on
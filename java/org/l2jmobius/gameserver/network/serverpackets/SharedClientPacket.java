@@ -0,0 +1,97 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.network.serverpackets;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.commons.network.SharedPacket;
+import org.l2jmobius.gameserver.model.actor.instance.PlayerInstance;
+
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Broadcast wrapper of a server packet, written once for all the players it is sent to.<br>
+ * Usage:
+ * <pre>
+ * final IClientOutgoingPacket packet = SharedClientPacket.of(mov);
+ * try
+ * {
+ * 	players.forEach(packet::sendTo);
+ * }
+ * finally
+ * {
+ * 	SharedClientPacket.release(packet);
+ * }
+ * </pre>
+ * @author Mobius
+ */
+public class SharedClientPacket extends SharedPacket<IClientOutgoingPacket> implements IClientOutgoingPacket
+{
+	private SharedClientPacket(IClientOutgoingPacket packet)
+	{
+		super(packet);
+	}
+	
+	@Override
+	public SharedClientPacket retain()
+	{
+		super.retain();
+		return this;
+	}
+	
+	@Override
+	public void runImpl(PlayerInstance player)
+	{
+		getPacket().runImpl(player);
+	}
+	
+	/**
+	 * @param packet the packet to broadcast
+	 * @return a shared version of the given packet, or the packet itself when it cannot be shared
+	 */
+	public static IClientOutgoingPacket of(IClientOutgoingPacket packet)
+	{
+		if (packet instanceof SharedClientPacket)
+		{
+			return ((SharedClientPacket) packet).retain();
+		}
+		
+		if ((packet == null) || !Config.SHARED_BROADCAST_PACKETS || (Config.MULTILANG_ENABLE && isTranslatable(packet)))
+		{
+			return packet;
+		}
+		
+		return new SharedClientPacket(packet);
+	}
+	
+	/**
+	 * Releases a packet obtained from {@link #of(IClientOutgoingPacket)}.
+	 * @param packet the packet to release
+	 */
+	public static void release(IClientOutgoingPacket packet)
+	{
+		ReferenceCountUtil.release(packet);
+	}
+	
+	/**
+	 * @param packet the packet to check
+	 * @return {@code true} if the packet is written in the language of each player
+	 */
+	private static boolean isTranslatable(IClientOutgoingPacket packet)
+	{
+		return (packet instanceof SystemMessage) || (packet instanceof NpcSay) || (packet instanceof ExShowScreenMessage) || (packet instanceof AbstractNpcInfo.NpcInfo);
+	}
+}
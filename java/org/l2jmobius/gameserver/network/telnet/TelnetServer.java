@@ -24,12 +24,11 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.l2jmobius.Config;
+import org.l2jmobius.commons.network.NetworkTransport;
 
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 
 /**
  * @author UnAfraid
@@ -38,7 +37,7 @@ public class TelnetServer
 {
 	private static final Logger LOGGER = Logger.getLogger(TelnetServer.class.getName());
 	private final Map<String, ITelnetCommand> _commands = new LinkedHashMap<>();
-	private final EventLoopGroup _workerGroup = new NioEventLoopGroup(1);
+	private final EventLoopGroup _workerGroup = NetworkTransport.newEventLoopGroup(1);
 	
 	protected TelnetServer()
 	{
@@ -94,7 +93,7 @@ public class TelnetServer
 			final InetSocketAddress socket = Config.TELNET_HOSTNAME.equals("*") ? new InetSocketAddress(Config.TELNET_PORT) : new InetSocketAddress(Config.TELNET_HOSTNAME, Config.TELNET_PORT);
 			//@formatter:off
 			new ServerBootstrap().group(_workerGroup)
-				.channel(NioServerSocketChannel.class)
+				.channel(NetworkTransport.getServerChannelClass())
 				//.option(ChannelOption.SO_KEEPALIVE, true)
 				.childHandler(new TelnetServerInitializer())
 				.bind(socket);
@@ -16,67 +16,359 @@
  */
 package org.l2jmobius.gameserver.taskmanager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import org.l2jmobius.Config;
 import org.l2jmobius.commons.concurrent.ThreadPool;
 import org.l2jmobius.gameserver.ai.CreatureAI;
+import org.l2jmobius.gameserver.ai.CtrlIntention;
+import org.l2jmobius.gameserver.model.WorldRegion;
 import org.l2jmobius.gameserver.model.actor.Attackable;
 
 /**
+ * Runs the AI of attackables once per second, spread over buckets so each tick of the second only thinks for a part of them.<br>
+ * Attackables fighting, moving or returning home think on each round. Idle attackables with players around think once every few rounds and idle attackables without players around do not think at all.<br>
+ * Crowded buckets are grouped by world region. Thinking changes attackables of the surrounding regions too (hate, faction calls, moves across borders), so regions are colored on a 3x3 grid and only regions of the same color think in parallel on the AI threads.<br>
+ * Regions of the same color are three regions apart and never share a surrounding region. The tick ends when all colors are done.<br>
+ * Idle attackables are left for a later round when their group runs past the tick. Groups, colors and idle attackables start from another one each round, so the same ones are not always left behind.
  * @author Mobius
  */
 public class AttackableThinkTaskManager
 {
-	private static final Set<Attackable> ATTACKABLES = ConcurrentHashMap.newKeySet();
-	private static boolean _working = false;
+	private static final Logger LOGGER = Logger.getLogger(AttackableThinkTaskManager.class.getName());
 	
-	public AttackableThinkTaskManager()
+	private static final int BUCKET_COUNT = 10;
+	private static final int TICK = 1000 / BUCKET_COUNT;
+	private static final int PARALLEL_THINK_THRESHOLD = 200; // Smaller buckets think on the tick thread.
+	private static final int COLOR_COUNT = 9;
+	
+	private static final int TIER_ACTIVE = 0;
+	private static final int TIER_IDLE = 1;
+	private static final int TIER_SUSPENDED = 2;
+	private static final String[] TIER_NAMES =
+	{
+		"Active",
+		"Idle",
+		"Suspended"
+	};
+	
+	private final Set<Attackable>[] _bucketList;
+	private final Map<Attackable, Set<Attackable>> _buckets = new ConcurrentHashMap<>();
+	/** Creatures of each tier in each bucket, as of the last time the bucket was processed. */
+	private final int[][] _tierCounts = new int[BUCKET_COUNT][TIER_NAMES.length];
+	private final ForkJoinPool _thinkPool;
+	private volatile int _currentBucket = 0;
+	private volatile int _round = 0;
+	
+	// Tick statistics, only written by the tick thread.
+	private volatile long _tickCount = 0;
+	private volatile long _totalTickTime = 0;
+	private volatile long _lastTickTime = 0;
+	private volatile long _maxTickTime = 0;
+	private volatile long _overrunCount = 0;
+	private final LongAdder _deferred = new LongAdder();
+	
+	@SuppressWarnings("unchecked")
+	protected AttackableThinkTaskManager()
+	{
+		_bucketList = (Set<Attackable>[]) new Set<?>[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++)
+		{
+			_bucketList[i] = ConcurrentHashMap.newKeySet();
+		}
+		
+		_thinkPool = Config.AI_THREAD_COUNT > 1 ? new ForkJoinPool(Config.AI_THREAD_COUNT) : null;
+		
+		ThreadPool.scheduleAtFixedRate(this::run, TICK, TICK);
+	}
+	
+	public void add(Attackable attackable)
+	{
+		// The bucket that was just processed comes again after a full round.
+		_buckets.computeIfAbsent(attackable, k ->
+		{
+			final Set<Attackable> bucket = _bucketList[_currentBucket];
+			bucket.add(attackable);
+			return bucket;
+		});
+	}
+	
+	public void remove(Attackable attackable)
 	{
-		ThreadPool.scheduleAtFixedRate(() ->
+		final Set<Attackable> bucket = _buckets.remove(attackable);
+		if (bucket != null)
 		{
-			if (_working)
+			bucket.remove(attackable);
+		}
+	}
+	
+	public String[] getStats()
+	{
+		final int[] totals = new int[TIER_NAMES.length];
+		for (int[] counts : _tierCounts)
+		{
+			for (int tier = 0; tier < totals.length; tier++)
 			{
-				return;
+				totals[tier] += counts[tier];
 			}
-			_working = true;
-			
-			CreatureAI ai;
-			for (Attackable attackable : ATTACKABLES)
+		}
+		
+		final long tickCount = _tickCount;
+		final String[] stats = new String[TIER_NAMES.length + 8];
+		int pos = 0;
+		
+		stats[pos++] = "Attackable AI:";
+		for (int tier = 0; tier < totals.length; tier++)
+		{
+			stats[pos++] = " |- " + TIER_NAMES[tier] + ": " + totals[tier];
+		}
+		stats[pos++] = " |- Threads: " + (_thinkPool == null ? 1 : _thinkPool.getParallelism());
+		stats[pos++] = " |- Ticks: " + tickCount;
+		stats[pos++] = " |- Last tick: " + _lastTickTime + " ms";
+		stats[pos++] = " |- Average tick: " + (tickCount == 0 ? 0 : _totalTickTime / tickCount) + " ms";
+		stats[pos++] = " |- Max tick: " + _maxTickTime + " ms";
+		stats[pos++] = " |- Overruns: " + _overrunCount;
+		stats[pos++] = " |- Deferred idle thoughts: " + _deferred.sum();
+		
+		return stats;
+	}
+	
+	private void run()
+	{
+		final long tickStart = System.currentTimeMillis();
+		try
+		{
+			think(tickStart);
+		}
+		catch (Throwable e)
+		{
+			LOGGER.log(Level.WARNING, "AttackableThinkTaskManager: Problem running tick", e);
+		}
+		
+		final long tickTime = System.currentTimeMillis() - tickStart;
+		_lastTickTime = tickTime;
+		_totalTickTime += tickTime;
+		_tickCount++;
+		if (tickTime > _maxTickTime)
+		{
+			_maxTickTime = tickTime;
+		}
+		if (tickTime > TICK)
+		{
+			_overrunCount++;
+		}
+	}
+	
+	private void think(long tickStart)
+	{
+		final int next = (_currentBucket + 1) % BUCKET_COUNT;
+		_currentBucket = next;
+		if (next == 0)
+		{
+			_round++;
+		}
+		
+		final Set<Attackable> bucket = _bucketList[next];
+		if (bucket.isEmpty())
+		{
+			_tierCounts[next] = new int[TIER_NAMES.length];
+			return;
+		}
+		
+		// Attackables of the same region stay in the same group.
+		final Map<WorldRegion, ThinkGroup> regions = new HashMap<>();
+		final int[] counts = new int[TIER_NAMES.length];
+		final int round = _round;
+		final long deadline = tickStart + TICK;
+		int count = 0;
+		for (Attackable attackable : bucket)
+		{
+			final int tier = getTier(attackable);
+			counts[tier]++;
+			switch (tier)
 			{
-				if (attackable.hasAI())
+				case TIER_ACTIVE:
 				{
-					ai = attackable.getAI();
-					if (ai != null)
-					{
-						ai.onEvtThink();
-					}
-					else
+					regions.computeIfAbsent(attackable.getWorldRegion(), k -> new ThinkGroup(deadline, round))._active.add(attackable);
+					count++;
+					break;
+				}
+				case TIER_IDLE:
+				{
+					// Spread idle attackables over the rounds.
+					if (((round + attackable.getObjectId()) % Config.IDLE_THINK_RATE) == 0)
 					{
-						remove(attackable);
+						regions.computeIfAbsent(attackable.getWorldRegion(), k -> new ThinkGroup(deadline, round))._idle.add(attackable);
+						count++;
 					}
+					break;
 				}
-				else
+			}
+		}
+		_tierCounts[next] = counts;
+		
+		if ((_thinkPool == null) || (count < PARALLEL_THINK_THRESHOLD))
+		{
+			final List<ThinkGroup> groups = new ArrayList<>(regions.values());
+			for (int i = 0; i < groups.size(); i++)
+			{
+				groups.get((i + round) % groups.size()).call();
+			}
+			return;
+		}
+		
+		// Think for one color at a time.
+		final List<List<ThinkGroup>> colors = new ArrayList<>(COLOR_COUNT);
+		for (int i = 0; i < COLOR_COUNT; i++)
+		{
+			colors.add(new ArrayList<>());
+		}
+		for (Entry<WorldRegion, ThinkGroup> entry : regions.entrySet())
+		{
+			final WorldRegion region = entry.getKey();
+			if (region == null)
+			{
+				// Not in the world, nothing around to share.
+				entry.getValue().call();
+			}
+			else
+			{
+				colors.get(((region.getRegionX() % 3) * 3) + (region.getRegionY() % 3)).add(entry.getValue());
+			}
+		}
+		for (int i = 0; i < COLOR_COUNT; i++)
+		{
+			final List<ThinkGroup> groups = colors.get((i + round) % COLOR_COUNT);
+			if (groups.size() == 1)
+			{
+				groups.get(0).call();
+			}
+			else if (!groups.isEmpty())
+			{
+				_thinkPool.invokeAll(groups);
+			}
+		}
+	}
+	
+	private class ThinkGroup implements Callable<Void>
+	{
+		protected final List<Attackable> _active = new ArrayList<>();
+		protected final List<Attackable> _idle = new ArrayList<>();
+		private final long _deadline;
+		private final int _rotation;
+		
+		public ThinkGroup(long deadline, int round)
+		{
+			_deadline = deadline;
+			_rotation = round;
+		}
+		
+		@Override
+		public Void call()
+		{
+			for (Attackable attackable : _active)
+			{
+				think(attackable);
+			}
+			
+			final int size = _idle.size();
+			for (int i = 0; i < size; i++)
+			{
+				// Tick is over, idle attackables can wait for their next turn.
+				if (System.currentTimeMillis() > _deadline)
+				{
+					_deferred.add(size - i);
+					break;
+				}
+				
+				think(_idle.get((i + _rotation) % size));
+			}
+			return null;
+		}
+		
+		private void think(Attackable attackable)
+		{
+			try
+			{
+				if (!attackable.hasAI())
 				{
 					remove(attackable);
+					return;
 				}
+				
+				final CreatureAI ai = attackable.getAI();
+				if (ai == null)
+				{
+					remove(attackable);
+					return;
+				}
+				
+				ai.onEvtThink();
 			}
-			
-			_working = false;
-		}, 1000, 1000);
+			catch (Exception e)
+			{
+				LOGGER.log(Level.WARNING, "AttackableThinkTaskManager: Problem thinking for " + attackable, e);
+			}
+		}
 	}
 	
-	public void add(Attackable attackable)
+	/**
+	 * @param attackable the attackable
+	 * @return the tier of the attackable, one of the TIER constants
+	 */
+	private static int getTier(Attackable attackable)
 	{
-		if (!ATTACKABLES.contains(attackable))
+		if (!attackable.hasAI())
+		{
+			return TIER_SUSPENDED;
+		}
+		
+		final CtrlIntention intention = attackable.getAI().getIntention();
+		if ((intention != CtrlIntention.AI_INTENTION_ACTIVE) || attackable.isMoving() || attackable.isReturningToSpawnPoint() || attackable.isInCombat() || !attackable.getAggroList().isEmpty())
 		{
-			ATTACKABLES.add(attackable);
+			return TIER_ACTIVE;
 		}
+		
+		if (!Config.SUSPEND_IDLE_THINK || hasPlayersAround(attackable))
+		{
+			return TIER_IDLE;
+		}
+		
+		return TIER_SUSPENDED;
 	}
 	
-	public void remove(Attackable attackable)
+	/**
+	 * @param attackable the attackable
+	 * @return true if a player is inside the region of the attackable or one of its surrounding regions
+	 */
+	private static boolean hasPlayersAround(Attackable attackable)
 	{
-		ATTACKABLES.remove(attackable);
+		final WorldRegion region = attackable.getWorldRegion();
+		if (region == null)
+		{
+			return false;
+		}
+		
+		final int instanceId = attackable.getInstanceId();
+		for (WorldRegion surroundingRegion : region.getSurroundingRegions())
+		{
+			if (!surroundingRegion.getVisibleObjects(instanceId, WorldRegion.TYPE_PLAYER).isEmpty())
+			{
+				return true;
+			}
+		}
+		return false;
 	}
 	
 	public static AttackableThinkTaskManager getInstance()
@@ -88,4 +380,4 @@ public class AttackableThinkTaskManager
 	{
 		protected static final AttackableThinkTaskManager INSTANCE = new AttackableThinkTaskManager();
 	}
-}
+}
\ No newline at end of file
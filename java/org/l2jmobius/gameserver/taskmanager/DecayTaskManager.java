@@ -21,43 +21,23 @@ import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.l2jmobius.Config;
-import org.l2jmobius.commons.concurrent.ThreadPool;
 import org.l2jmobius.commons.util.Chronos;
 import org.l2jmobius.gameserver.model.actor.Attackable;
 import org.l2jmobius.gameserver.model.actor.Creature;
 import org.l2jmobius.gameserver.model.actor.templates.NpcTemplate;
+import org.l2jmobius.gameserver.taskmanager.TimingWheelTaskManager.DeadlineTask;
+import org.l2jmobius.gameserver.taskmanager.TimingWheelTaskManager.TaskGroup;
 
 /**
  * @author Mobius
  */
 public class DecayTaskManager
 {
-	private static final Map<Creature, Long> DECAY_SCHEDULES = new ConcurrentHashMap<>();
-	private static boolean _working = false;
+	private static final Map<Creature, DeadlineTask> DECAY_SCHEDULES = new ConcurrentHashMap<>();
+	private static final TaskGroup TASKS = TimingWheelTaskManager.getInstance().getGroup("Decay");
 	
 	public DecayTaskManager()
 	{
-		ThreadPool.scheduleAtFixedRate(() ->
-		{
-			if (_working)
-			{
-				return;
-			}
-			_working = true;
-			
-			final long time = Chronos.currentTimeMillis();
-			for (Entry<Creature, Long> entry : DECAY_SCHEDULES.entrySet())
-			{
-				if (time > entry.getValue().longValue())
-				{
-					final Creature creature = entry.getKey();
-					DECAY_SCHEDULES.remove(creature);
-					creature.onDecay();
-				}
-			}
-			
-			_working = false;
-		}, 0, 1000);
 	}
 	
 	/**
@@ -88,7 +68,17 @@ public class DecayTaskManager
 		}
 		
 		// Add to decay schedules.
-		DECAY_SCHEDULES.put(creature, Chronos.currentTimeMillis() + (delay * 1000));
+		final DeadlineTask previous = DECAY_SCHEDULES.put(creature, TASKS.schedule(task ->
+		{
+			if (DECAY_SCHEDULES.remove(creature, task))
+			{
+				creature.onDecay();
+			}
+		}, Chronos.currentTimeMillis() + (delay * 1000)));
+		if (previous != null)
+		{
+			previous.cancel();
+		}
 	}
 	
 	/**
@@ -97,7 +87,11 @@ public class DecayTaskManager
 	 */
 	public void cancel(Creature creature)
 	{
-		DECAY_SCHEDULES.remove(creature);
+		final DeadlineTask task = DECAY_SCHEDULES.remove(creature);
+		if (task != null)
+		{
+			task.cancel();
+		}
 	}
 	
 	/**
@@ -107,8 +101,8 @@ public class DecayTaskManager
 	 */
 	public long getRemainingTime(Creature creature)
 	{
-		final Long time = DECAY_SCHEDULES.get(creature);
-		return time != null ? time.longValue() - Chronos.currentTimeMillis() : Long.MAX_VALUE;
+		final DeadlineTask task = DECAY_SCHEDULES.get(creature);
+		return task != null ? task.getDeadline() - Chronos.currentTimeMillis() : Long.MAX_VALUE;
 	}
 	
 	@Override
@@ -124,14 +118,14 @@ public class DecayTaskManager
 		ret.append(Config.EOL);
 		
 		final long time = Chronos.currentTimeMillis();
-		for (Entry<Creature, Long> entry : DECAY_SCHEDULES.entrySet())
+		for (Entry<Creature, DeadlineTask> entry : DECAY_SCHEDULES.entrySet())
 		{
 			ret.append("Class/Name: ");
 			ret.append(entry.getKey().getClass().getSimpleName());
 			ret.append('/');
 			ret.append(entry.getKey().getName());
 			ret.append(" decay timer: ");
-			ret.append(entry.getValue().longValue() - time);
+			ret.append(entry.getValue().getDeadline() - time);
 			ret.append(Config.EOL);
 		}
 		
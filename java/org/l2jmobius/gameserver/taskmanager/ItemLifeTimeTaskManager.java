@@ -17,57 +17,42 @@
 package org.l2jmobius.gameserver.taskmanager;
 
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 
-import org.l2jmobius.commons.concurrent.ThreadPool;
-import org.l2jmobius.commons.util.Chronos;
 import org.l2jmobius.gameserver.model.items.instance.ItemInstance;
+import org.l2jmobius.gameserver.taskmanager.TimingWheelTaskManager.DeadlineTask;
+import org.l2jmobius.gameserver.taskmanager.TimingWheelTaskManager.TaskGroup;
 
 /**
  * @author Mobius
  */
 public class ItemLifeTimeTaskManager
 {
-	private static final Map<ItemInstance, Long> ITEMS = new ConcurrentHashMap<>();
-	private static boolean _working = false;
+	private static final Map<ItemInstance, DeadlineTask> ITEMS = new ConcurrentHashMap<>();
+	private static final TaskGroup TASKS = TimingWheelTaskManager.getInstance().getGroup("ItemLifeTime");
 	
 	public ItemLifeTimeTaskManager()
 	{
-		ThreadPool.scheduleAtFixedRate(() ->
-		{
-			if (_working)
-			{
-				return;
-			}
-			_working = true;
-			
-			final long currentTime = Chronos.currentTimeMillis();
-			for (Entry<ItemInstance, Long> entry : ITEMS.entrySet())
-			{
-				if (currentTime > entry.getValue().longValue())
-				{
-					final ItemInstance item = entry.getKey();
-					ITEMS.remove(item);
-					item.endOfLife();
-				}
-			}
-			
-			_working = false;
-		}, 1000, 1000);
 	}
 	
 	public void add(ItemInstance item, long endTime)
 	{
-		if (!ITEMS.containsKey(item))
+		ITEMS.computeIfAbsent(item, k -> TASKS.schedule(task ->
 		{
-			ITEMS.put(item, endTime);
-		}
+			if (ITEMS.remove(item, task))
+			{
+				item.endOfLife();
+			}
+		}, endTime));
 	}
 	
 	public void remove(ItemInstance item)
 	{
-		ITEMS.remove(item);
+		final DeadlineTask task = ITEMS.remove(item);
+		if (task != null)
+		{
+			task.cancel();
+		}
 	}
 	
 	public static ItemLifeTimeTaskManager getInstance()
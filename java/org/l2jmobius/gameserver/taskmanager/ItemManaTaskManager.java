@@ -17,53 +17,35 @@
 package org.l2jmobius.gameserver.taskmanager;
 
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 
-import org.l2jmobius.commons.concurrent.ThreadPool;
 import org.l2jmobius.commons.util.Chronos;
 import org.l2jmobius.gameserver.model.items.instance.ItemInstance;
+import org.l2jmobius.gameserver.taskmanager.TimingWheelTaskManager.DeadlineTask;
+import org.l2jmobius.gameserver.taskmanager.TimingWheelTaskManager.TaskGroup;
 
 /**
  * @author Mobius
  */
 public class ItemManaTaskManager
 {
-	private static final Map<ItemInstance, Long> ITEMS = new ConcurrentHashMap<>();
+	private static final Map<ItemInstance, DeadlineTask> ITEMS = new ConcurrentHashMap<>();
+	private static final TaskGroup TASKS = TimingWheelTaskManager.getInstance().getGroup("ItemMana");
 	private static final int MANA_CONSUMPTION_RATE = 60000;
-	private static boolean _working = false;
 	
 	public ItemManaTaskManager()
 	{
-		ThreadPool.scheduleAtFixedRate(() ->
-		{
-			if (_working)
-			{
-				return;
-			}
-			_working = true;
-			
-			final long currentTime = Chronos.currentTimeMillis();
-			for (Entry<ItemInstance, Long> entry : ITEMS.entrySet())
-			{
-				if (currentTime > entry.getValue().longValue())
-				{
-					final ItemInstance item = entry.getKey();
-					ITEMS.remove(item);
-					item.decreaseMana(true);
-				}
-			}
-			
-			_working = false;
-		}, 1000, 1000);
 	}
 	
 	public void add(ItemInstance item)
 	{
-		if (!ITEMS.containsKey(item))
+		ITEMS.computeIfAbsent(item, k -> TASKS.schedule(task ->
 		{
-			ITEMS.put(item, Chronos.currentTimeMillis() + MANA_CONSUMPTION_RATE);
-		}
+			if (ITEMS.remove(item, task))
+			{
+				item.decreaseMana(true);
+			}
+		}, Chronos.currentTimeMillis() + MANA_CONSUMPTION_RATE));
 	}
 	
 	public static ItemManaTaskManager getInstance()
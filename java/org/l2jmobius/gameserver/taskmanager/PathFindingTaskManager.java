@@ -0,0 +1,322 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.taskmanager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.commons.concurrent.ThreadPool;
+import org.l2jmobius.gameserver.geoengine.GeoEngine;
+import org.l2jmobius.gameserver.model.Location;
+import org.l2jmobius.gameserver.model.World;
+import org.l2jmobius.gameserver.model.actor.Creature;
+
+/**
+ * Calculates paths of AI controlled creatures on dedicated threads, so long searches do not stall the AI and network threads.<br>
+ * A creature asking for a path gets it once calculated: its movement is then started again from the thread pool with the same destination, which finds the path ready.<br>
+ * Each creature has at most one request. Asking again while it is calculated waits for it: when the destination has changed meanwhile, the creature moves on the calculated path towards the new destination, and asks for a new path on its next move.
+ * @author Mobius
+ */
+public class PathFindingTaskManager
+{
+	private static final Logger LOGGER = Logger.getLogger(PathFindingTaskManager.class.getName());
+	
+	// Upper bounds in milliseconds of the latency histogram buckets, the last bucket counts all longer requests.
+	private static final int[] LATENCY_BUCKETS =
+	{
+		1,
+		2,
+		5,
+		10,
+		20,
+		50,
+		100,
+		200,
+		500
+	};
+	
+	private final ThreadPoolExecutor _executor;
+	private final Map<Integer, PathRequest> _requests = new ConcurrentHashMap<>();
+	
+	private final LongAdder _submitted = new LongAdder();
+	private final LongAdder _coalesced = new LongAdder();
+	private final LongAdder _redirected = new LongAdder();
+	private final LongAdder _dropped = new LongAdder();
+	private final LongAdder _rejected = new LongAdder();
+	private final LongAdder[] _latencies = new LongAdder[LATENCY_BUCKETS.length + 1];
+	
+	protected PathFindingTaskManager()
+	{
+		if (Config.PATHFIND_ASYNC_THREADS > 0)
+		{
+			final AtomicInteger count = new AtomicInteger();
+			_executor = new ThreadPoolExecutor(Config.PATHFIND_ASYNC_THREADS, Config.PATHFIND_ASYNC_THREADS, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(Config.PATHFIND_ASYNC_QUEUE_SIZE), r ->
+			{
+				final Thread thread = new Thread(r, "PathFinding-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		else
+		{
+			_executor = null;
+		}
+		
+		for (int i = 0; i < _latencies.length; i++)
+		{
+			_latencies[i] = new LongAdder();
+		}
+	}
+	
+	/**
+	 * @return {@code true} when paths are calculated on dedicated threads.
+	 */
+	public boolean isEnabled()
+	{
+		return _executor != null;
+	}
+	
+	/**
+	 * Returns the path of a creature when ready, or asks for it.
+	 * @param creature : The creature.
+	 * @param ox : origin x
+	 * @param oy : origin y
+	 * @param oz : origin z
+	 * @param tx : target x
+	 * @param ty : target y
+	 * @param tz : target z
+	 * @param xValue : The X position given to {@link Creature#moveToLocation(int, int, int, int)}.
+	 * @param yValue : The Y position given to {@link Creature#moveToLocation(int, int, int, int)}.
+	 * @param zValue : The Z position given to {@link Creature#moveToLocation(int, int, int, int)}.
+	 * @param offset : The offset given to {@link Creature#moveToLocation(int, int, int, int)}.
+	 * @return The path, or {@code null} while it is calculated.
+	 */
+	public List<Location> getPath(Creature creature, int ox, int oy, int oz, int tx, int ty, int tz, int xValue, int yValue, int zValue, int offset)
+	{
+		final int gtx = (tx - World.WORLD_X_MIN) >> 4;
+		final int gty = (ty - World.WORLD_Y_MIN) >> 4;
+		
+		final PathRequest request = _requests.get(creature.getObjectId());
+		if (request != null)
+		{
+			// Path is ready, hand it over even if the destination has moved since.
+			if (request._path != null)
+			{
+				_requests.remove(creature.getObjectId(), request);
+				return request._path;
+			}
+			
+			// Same destination is already calculated.
+			if ((request._gtx == gtx) && (request._gty == gty))
+			{
+				_coalesced.increment();
+				return null;
+			}
+			
+			// Destination has changed, keep the request so the creature does not wait forever behind a busy queue.
+			// Movement starts again towards the new destination once the path is ready.
+			request.setDestination(xValue, yValue, zValue, offset);
+			_redirected.increment();
+			return null;
+		}
+		
+		final PathRequest added = new PathRequest(creature, ox, oy, oz, tx, ty, tz, gtx, gty, xValue, yValue, zValue, offset);
+		_requests.put(creature.getObjectId(), added);
+		try
+		{
+			_executor.execute(added);
+			_submitted.increment();
+			return null;
+		}
+		catch (RejectedExecutionException e)
+		{
+			// Queue is full, calculate the path on current thread.
+			_rejected.increment();
+			_requests.remove(creature.getObjectId(), added);
+			return GeoEngine.getInstance().findPath(ox, oy, oz, tx, ty, tz, creature.getInstanceId());
+		}
+	}
+	
+	/**
+	 * @param creature : The creature.
+	 * @return {@code true} while the path of the creature is calculated.
+	 */
+	public boolean isPending(Creature creature)
+	{
+		final PathRequest request = _requests.get(creature.getObjectId());
+		return (request != null) && (request._path == null);
+	}
+	
+	/**
+	 * Drops the pending request of a creature, which stopped moving.
+	 * @param creature : The creature.
+	 */
+	public void cancel(Creature creature)
+	{
+		_requests.remove(creature.getObjectId());
+	}
+	
+	public String[] getStats()
+	{
+		if (_executor == null)
+		{
+			return new String[0];
+		}
+		
+		final String[] stats = new String[_latencies.length + 4];
+		int pos = 0;
+		
+		stats[pos++] = "Pathfinding requests:";
+		stats[pos++] = " |- Pending: " + _requests.size() + ", Queued: " + _executor.getQueue().size() + " of " + Config.PATHFIND_ASYNC_QUEUE_SIZE;
+		stats[pos++] = " |- Submitted: " + _submitted.sum() + ", Coalesced: " + _coalesced.sum() + ", Redirected: " + _redirected.sum() + ", Dropped: " + _dropped.sum() + ", Rejected: " + _rejected.sum();
+		stats[pos++] = " |- Latency:";
+		for (int i = 0; i < LATENCY_BUCKETS.length; i++)
+		{
+			stats[pos++] = "    |- Up to " + LATENCY_BUCKETS[i] + " ms: " + _latencies[i].sum();
+		}
+		stats[pos++] = "    |- Over " + LATENCY_BUCKETS[LATENCY_BUCKETS.length - 1] + " ms: " + _latencies[LATENCY_BUCKETS.length].sum();
+		
+		return stats;
+	}
+	
+	private class PathRequest implements Runnable
+	{
+		private final Creature _creature;
+		private final int _ox;
+		private final int _oy;
+		private final int _oz;
+		private final int _tx;
+		private final int _ty;
+		private final int _tz;
+		protected final int _gtx;
+		protected final int _gty;
+		private int _xValue;
+		private int _yValue;
+		private int _zValue;
+		private int _offset;
+		private final long _submitTime = System.nanoTime();
+		protected volatile List<Location> _path;
+		
+		protected PathRequest(Creature creature, int ox, int oy, int oz, int tx, int ty, int tz, int gtx, int gty, int xValue, int yValue, int zValue, int offset)
+		{
+			_creature = creature;
+			_ox = ox;
+			_oy = oy;
+			_oz = oz;
+			_tx = tx;
+			_ty = ty;
+			_tz = tz;
+			_gtx = gtx;
+			_gty = gty;
+			_xValue = xValue;
+			_yValue = yValue;
+			_zValue = zValue;
+			_offset = offset;
+		}
+		
+		protected synchronized void setDestination(int xValue, int yValue, int zValue, int offset)
+		{
+			_xValue = xValue;
+			_yValue = yValue;
+			_zValue = zValue;
+			_offset = offset;
+		}
+		
+		private void moveToDestination()
+		{
+			final int xValue;
+			final int yValue;
+			final int zValue;
+			final int offset;
+			synchronized (this)
+			{
+				xValue = _xValue;
+				yValue = _yValue;
+				zValue = _zValue;
+				offset = _offset;
+			}
+			_creature.moveToLocation(xValue, yValue, zValue, offset);
+		}
+		
+		@Override
+		public void run()
+		{
+			// Request was replaced or cancelled while queued.
+			if (_requests.get(_creature.getObjectId()) != this)
+			{
+				_dropped.increment();
+				return;
+			}
+			
+			try
+			{
+				_path = GeoEngine.getInstance().findPath(_ox, _oy, _oz, _tx, _ty, _tz, _creature.getInstanceId());
+			}
+			catch (Exception e)
+			{
+				LOGGER.log(Level.WARNING, "PathFindingTaskManager: Problem finding path for " + _creature, e);
+				_requests.remove(_creature.getObjectId(), this);
+				return;
+			}
+			
+			final long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - _submitTime);
+			int bucket = 0;
+			while ((bucket < LATENCY_BUCKETS.length) && (latency > LATENCY_BUCKETS[bucket]))
+			{
+				bucket++;
+			}
+			_latencies[bucket].increment();
+			
+			// Start the movement again towards the latest destination, unless the request was dropped meanwhile.
+			// The move was not broadcast while the path was calculated, clients learn about it now.
+			ThreadPool.execute(() ->
+			{
+				if ((_requests.get(_creature.getObjectId()) == this) && !_creature.isDead())
+				{
+					moveToDestination();
+					if (_creature.isMoving())
+					{
+						_creature.broadcastMoveToLocation();
+					}
+				}
+				
+				// A path left over, when the movement ended before asking for it, must not be handed to a later move.
+				_requests.remove(_creature.getObjectId(), this);
+			});
+		}
+	}
+	
+	public static PathFindingTaskManager getInstance()
+	{
+		return SingletonHolder.INSTANCE;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final PathFindingTaskManager INSTANCE = new PathFindingTaskManager();
+	}
+}
\ No newline at end of file
@@ -17,59 +17,72 @@
 package org.l2jmobius.gameserver.taskmanager;
 
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.l2jmobius.Config;
 import org.l2jmobius.commons.concurrent.ThreadPool;
 import org.l2jmobius.commons.util.Chronos;
 import org.l2jmobius.gameserver.model.actor.instance.PlayerInstance;
+import org.l2jmobius.gameserver.taskmanager.TimingWheelTaskManager.DeadlineTask;
+import org.l2jmobius.gameserver.taskmanager.TimingWheelTaskManager.TaskGroup;
 
 /**
  * @author Mobius
  */
 public class PlayerAutoSaveTaskManager
 {
-	private static final Map<PlayerInstance, Long> PLAYER_TIMES = new ConcurrentHashMap<>();
-	private static boolean _working = false;
+	private static final Map<PlayerInstance, DeadlineTask> PLAYER_TIMES = new ConcurrentHashMap<>();
+	private static final Queue<PlayerInstance> PENDING_SAVES = new ConcurrentLinkedQueue<>();
+	private static final TaskGroup TASKS = TimingWheelTaskManager.getInstance().getGroup("PlayerAutoSave");
 	
 	public PlayerAutoSaveTaskManager()
 	{
 		ThreadPool.scheduleAtFixedRate(() ->
 		{
-			if (_working)
+			// Save one player at a time to prevent SQL flood.
+			PlayerInstance player;
+			while ((player = PENDING_SAVES.poll()) != null)
 			{
-				return;
-			}
-			_working = true;
-			
-			final long time = Chronos.currentTimeMillis();
-			SEARCH: for (Entry<PlayerInstance, Long> entry : PLAYER_TIMES.entrySet())
-			{
-				if (time > entry.getValue().longValue())
+				if (!PLAYER_TIMES.containsKey(player))
 				{
-					final PlayerInstance player = entry.getKey();
-					if ((player != null) && player.isOnline())
-					{
-						player.autoSave();
-						PLAYER_TIMES.put(entry.getKey(), time + Config.CHAR_DATA_STORE_INTERVAL);
-						break SEARCH; // Prevent SQL flood.
-					}
+					continue;
 				}
+				
+				if (player.isOnline())
+				{
+					player.autoSave();
+					add(player);
+					break;
+				}
+				add(player);
 			}
-			
-			_working = false;
 		}, 1000, 1000);
 	}
 	
 	public void add(PlayerInstance player)
 	{
-		PLAYER_TIMES.put(player, Chronos.currentTimeMillis() + Config.CHAR_DATA_STORE_INTERVAL);
+		final DeadlineTask previous = PLAYER_TIMES.put(player, TASKS.schedule(task ->
+		{
+			if (PLAYER_TIMES.get(player) == task)
+			{
+				PENDING_SAVES.offer(player);
+			}
+		}, Chronos.currentTimeMillis() + Config.CHAR_DATA_STORE_INTERVAL));
+		if (previous != null)
+		{
+			previous.cancel();
+		}
 	}
 	
 	public void remove(PlayerInstance player)
 	{
-		PLAYER_TIMES.remove(player);
+		final DeadlineTask task = PLAYER_TIMES.remove(player);
+		if (task != null)
+		{
+			task.cancel();
+		}
 	}
 	
 	public static PlayerAutoSaveTaskManager getInstance()
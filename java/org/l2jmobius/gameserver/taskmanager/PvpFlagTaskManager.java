@@ -16,63 +16,75 @@
  */
 package org.l2jmobius.gameserver.taskmanager;
 
-import java.util.Set;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-import org.l2jmobius.commons.concurrent.ThreadPool;
 import org.l2jmobius.commons.util.Chronos;
 import org.l2jmobius.gameserver.model.actor.instance.PlayerInstance;
+import org.l2jmobius.gameserver.taskmanager.TimingWheelTaskManager.DeadlineTask;
+import org.l2jmobius.gameserver.taskmanager.TimingWheelTaskManager.TaskGroup;
 
 /**
  * @author Mobius
  */
 public class PvpFlagTaskManager
 {
-	private static final Set<PlayerInstance> PLAYERS = ConcurrentHashMap.newKeySet();
-	private static boolean _working = false;
+	private static final Map<PlayerInstance, DeadlineTask> PLAYERS = new ConcurrentHashMap<>();
+	private static final TaskGroup TASKS = TimingWheelTaskManager.getInstance().getGroup("PvpFlag");
 	
 	public PvpFlagTaskManager()
 	{
-		ThreadPool.scheduleAtFixedRate(() ->
-		{
-			if (_working)
-			{
-				return;
-			}
-			_working = true;
-			
-			if (!PLAYERS.isEmpty())
-			{
-				final long time = Chronos.currentTimeMillis();
-				for (PlayerInstance player : PLAYERS)
-				{
-					if (time > player.getPvpFlagLasts())
-					{
-						player.stopPvPFlag();
-					}
-					else if (time > (player.getPvpFlagLasts() - 20000))
-					{
-						player.updatePvPFlag(2);
-					}
-					else
-					{
-						player.updatePvPFlag(1);
-					}
-				}
-			}
-			
-			_working = false;
-		}, 1000, 1000);
 	}
 	
+	/**
+	 * Schedules the next flag change of the player.<br>
+	 * Must be called again when the flag time of the player is changed to a time before the scheduled change.
+	 * @param player the player
+	 */
 	public void add(PlayerInstance player)
 	{
-		PLAYERS.add(player);
+		// A steady flag starts blinking 20 seconds before it ends.
+		// A blinking flag is checked each second, its time may be extended without a new flag start.
+		final long deadline = player.getPvpFlag() == 2 ? Math.min(player.getPvpFlagLasts(), Chronos.currentTimeMillis() + 1000) : player.getPvpFlagLasts() - 20000;
+		final DeadlineTask previous = PLAYERS.put(player, TASKS.schedule(task -> update(player, task), deadline));
+		if (previous != null)
+		{
+			previous.cancel();
+		}
 	}
 	
 	public void remove(PlayerInstance player)
 	{
-		PLAYERS.remove(player);
+		final DeadlineTask task = PLAYERS.remove(player);
+		if (task != null)
+		{
+			task.cancel();
+		}
+	}
+	
+	private void update(PlayerInstance player, DeadlineTask task)
+	{
+		if (PLAYERS.get(player) != task)
+		{
+			return;
+		}
+		
+		// The flag time may have been extended since the change was scheduled.
+		final long time = Chronos.currentTimeMillis();
+		if (time > player.getPvpFlagLasts())
+		{
+			player.stopPvPFlag();
+			return;
+		}
+		else if (time > (player.getPvpFlagLasts() - 20000))
+		{
+			player.updatePvPFlag(2);
+		}
+		else
+		{
+			player.updatePvPFlag(1);
+		}
+		add(player);
 	}
 	
 	public static PvpFlagTaskManager getInstance()
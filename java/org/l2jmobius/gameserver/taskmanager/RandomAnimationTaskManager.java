@@ -17,62 +17,63 @@
 package org.l2jmobius.gameserver.taskmanager;
 
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.l2jmobius.Config;
-import org.l2jmobius.commons.concurrent.ThreadPool;
 import org.l2jmobius.commons.util.Chronos;
 import org.l2jmobius.commons.util.Rnd;
 import org.l2jmobius.gameserver.model.actor.Npc;
+import org.l2jmobius.gameserver.taskmanager.TimingWheelTaskManager.DeadlineTask;
+import org.l2jmobius.gameserver.taskmanager.TimingWheelTaskManager.TaskGroup;
 
 /**
  * @author Mobius
  */
 public class RandomAnimationTaskManager
 {
-	private static final Map<Npc, Long> PENDING_ANIMATIONS = new ConcurrentHashMap<>();
-	private static boolean _working = false;
+	private static final Map<Npc, DeadlineTask> PENDING_ANIMATIONS = new ConcurrentHashMap<>();
+	private static final TaskGroup TASKS = TimingWheelTaskManager.getInstance().getGroup("RandomAnimation");
 	
 	public RandomAnimationTaskManager()
 	{
-		ThreadPool.scheduleAtFixedRate(() ->
-		{
-			if (_working)
-			{
-				return;
-			}
-			_working = true;
-			
-			final long time = Chronos.currentTimeMillis();
-			for (Entry<Npc, Long> entry : PENDING_ANIMATIONS.entrySet())
-			{
-				if (time > entry.getValue().longValue())
-				{
-					final Npc npc = entry.getKey();
-					if (npc.isInActiveRegion() && !npc.isDead() && !npc.isInCombat() && !npc.isMoving() && !npc.isStunned() && !npc.isSleeping() && !npc.isParalyzed())
-					{
-						npc.onRandomAnimation(Rnd.get(2, 3));
-					}
-					PENDING_ANIMATIONS.put(npc, time + (Rnd.get((npc.isAttackable() ? Config.MIN_MONSTER_ANIMATION : Config.MIN_NPC_ANIMATION), (npc.isAttackable() ? Config.MAX_MONSTER_ANIMATION : Config.MAX_NPC_ANIMATION)) * 1000));
-				}
-			}
-			
-			_working = false;
-		}, 0, 1000);
 	}
 	
 	public void add(Npc npc)
 	{
 		if (npc.hasRandomAnimation())
 		{
-			PENDING_ANIMATIONS.putIfAbsent(npc, Chronos.currentTimeMillis() + (Rnd.get((npc.isAttackable() ? Config.MIN_MONSTER_ANIMATION : Config.MIN_NPC_ANIMATION), (npc.isAttackable() ? Config.MAX_MONSTER_ANIMATION : Config.MAX_NPC_ANIMATION)) * 1000));
+			PENDING_ANIMATIONS.computeIfAbsent(npc, k -> schedule(npc));
 		}
 	}
 	
 	public void remove(Npc npc)
 	{
-		PENDING_ANIMATIONS.remove(npc);
+		final DeadlineTask task = PENDING_ANIMATIONS.remove(npc);
+		if (task != null)
+		{
+			task.cancel();
+		}
+	}
+	
+	private DeadlineTask schedule(Npc npc)
+	{
+		return TASKS.schedule(task -> animate(npc, task), Chronos.currentTimeMillis() + (Rnd.get((npc.isAttackable() ? Config.MIN_MONSTER_ANIMATION : Config.MIN_NPC_ANIMATION), (npc.isAttackable() ? Config.MAX_MONSTER_ANIMATION : Config.MAX_NPC_ANIMATION)) * 1000));
+	}
+	
+	private void animate(Npc npc, DeadlineTask task)
+	{
+		if (PENDING_ANIMATIONS.get(npc) != task)
+		{
+			return;
+		}
+		
+		if (npc.isInActiveRegion() && !npc.isDead() && !npc.isInCombat() && !npc.isMoving() && !npc.isStunned() && !npc.isSleeping() && !npc.isParalyzed())
+		{
+			npc.onRandomAnimation(Rnd.get(2, 3));
+		}
+		
+		// Only reschedule while the npc was not removed or scheduled again meanwhile.
+		PENDING_ANIMATIONS.computeIfPresent(npc, (k, v) -> v == task ? schedule(npc) : v);
 	}
 	
 	public static RandomAnimationTaskManager getInstance()
@@ -0,0 +1,169 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.taskmanager;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.l2jmobius.commons.concurrent.ThreadPool;
+import org.l2jmobius.gameserver.model.actor.status.CreatureStatus;
+
+/**
+ * Regenerates HP/MP/CP of all damaged creatures from a few shared tasks instead of one scheduled task per creature.<br>
+ * Creatures with the same regeneration period share a wheel of buckets, each tick regenerates the creatures of one bucket.<br>
+ * A creature keeps its bucket until it stops regenerating, so it still regenerates once per period.
+ * @author Mobius
+ */
+public class RegenerationTaskManager
+{
+	private static final Logger LOGGER = Logger.getLogger(RegenerationTaskManager.class.getName());
+	
+	private static final int BUCKET_COUNT = 30;
+	private static final int BATCH_SIZE = 500; // Larger buckets are split across the thread pool.
+	
+	private final Map<Integer, RegenerationWheel> _wheels = new ConcurrentHashMap<>();
+	private final Map<CreatureStatus, Set<CreatureStatus>> _buckets = new ConcurrentHashMap<>();
+	
+	protected RegenerationTaskManager()
+	{
+	}
+	
+	/**
+	 * Starts regenerating the given creature status once per period, the first time after one period.
+	 * @param status the status to regenerate
+	 * @param period the regeneration period in milliseconds
+	 */
+	public void add(CreatureStatus status, int period)
+	{
+		_buckets.computeIfAbsent(status, k -> _wheels.computeIfAbsent(period, RegenerationWheel::new).add(status));
+	}
+	
+	/**
+	 * Stops regenerating the given creature status.
+	 * @param status the status
+	 */
+	public void remove(CreatureStatus status)
+	{
+		final Set<CreatureStatus> bucket = _buckets.remove(status);
+		if (bucket != null)
+		{
+			bucket.remove(status);
+		}
+	}
+	
+	public String[] getStats()
+	{
+		final String[] stats = new String[_wheels.size() + 1];
+		int pos = 0;
+		
+		stats[pos++] = "Regeneration:";
+		for (RegenerationWheel wheel : _wheels.values())
+		{
+			stats[pos++] = " |- Period " + wheel._period + " ms: " + wheel.size() + " creatures";
+		}
+		
+		return stats;
+	}
+	
+	private static void regenerate(CreatureStatus[] statuses, int from, int to)
+	{
+		for (int i = from; i < to; i++)
+		{
+			try
+			{
+				statuses[i].doRegeneration();
+			}
+			catch (Exception e)
+			{
+				LOGGER.log(Level.WARNING, "RegenerationTaskManager: Problem regenerating " + statuses[i].getActiveChar(), e);
+			}
+		}
+	}
+	
+	private class RegenerationWheel implements Runnable
+	{
+		protected final int _period;
+		private final Set<CreatureStatus>[] _bucketList;
+		private volatile int _currentBucket = 0;
+		
+		@SuppressWarnings("unchecked")
+		protected RegenerationWheel(int period)
+		{
+			_period = period;
+			_bucketList = (Set<CreatureStatus>[]) new Set<?>[BUCKET_COUNT];
+			for (int i = 0; i < BUCKET_COUNT; i++)
+			{
+				_bucketList[i] = ConcurrentHashMap.newKeySet();
+			}
+			
+			final int tick = Math.max(1, period / BUCKET_COUNT);
+			ThreadPool.scheduleAtFixedRate(this, tick, tick);
+		}
+		
+		protected Set<CreatureStatus> add(CreatureStatus status)
+		{
+			// The bucket that was just processed comes again after a full period.
+			final Set<CreatureStatus> bucket = _bucketList[_currentBucket];
+			bucket.add(status);
+			return bucket;
+		}
+		
+		protected int size()
+		{
+			int size = 0;
+			for (Set<CreatureStatus> bucket : _bucketList)
+			{
+				size += bucket.size();
+			}
+			return size;
+		}
+		
+		@Override
+		public void run()
+		{
+			final int next = (_currentBucket + 1) % BUCKET_COUNT;
+			_currentBucket = next;
+			
+			final Set<CreatureStatus> bucket = _bucketList[next];
+			if (bucket.isEmpty())
+			{
+				return;
+			}
+			
+			final CreatureStatus[] statuses = bucket.toArray(new CreatureStatus[0]);
+			for (int from = BATCH_SIZE; from < statuses.length; from += BATCH_SIZE)
+			{
+				final int start = from;
+				ThreadPool.execute(() -> regenerate(statuses, start, Math.min(start + BATCH_SIZE, statuses.length)));
+			}
+			regenerate(statuses, 0, Math.min(BATCH_SIZE, statuses.length));
+		}
+	}
+	
+	public static RegenerationTaskManager getInstance()
+	{
+		return SingletonHolder.INSTANCE;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final RegenerationTaskManager INSTANCE = new RegenerationTaskManager();
+	}
+}
@@ -17,55 +17,45 @@
 package org.l2jmobius.gameserver.taskmanager;
 
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 
-import org.l2jmobius.commons.concurrent.ThreadPool;
-import org.l2jmobius.commons.util.Chronos;
 import org.l2jmobius.gameserver.model.Spawn;
 import org.l2jmobius.gameserver.model.actor.Npc;
+import org.l2jmobius.gameserver.taskmanager.TimingWheelTaskManager.DeadlineTask;
+import org.l2jmobius.gameserver.taskmanager.TimingWheelTaskManager.TaskGroup;
 
 /**
  * @author Mobius
  */
 public class RespawnTaskManager
 {
-	private static final Map<Npc, Long> PENDING_RESPAWNS = new ConcurrentHashMap<>();
-	private static boolean _working = false;
+	private static final Map<Npc, DeadlineTask> PENDING_RESPAWNS = new ConcurrentHashMap<>();
+	private static final TaskGroup TASKS = TimingWheelTaskManager.getInstance().getGroup("Respawn");
 	
 	public RespawnTaskManager()
 	{
-		ThreadPool.scheduleAtFixedRate(() ->
+	}
+	
+	public void add(Npc npc, long time)
+	{
+		final DeadlineTask previous = PENDING_RESPAWNS.put(npc, TASKS.schedule(task ->
 		{
-			if (_working)
+			if (!PENDING_RESPAWNS.remove(npc, task))
 			{
 				return;
 			}
-			_working = true;
 			
-			final long time = Chronos.currentTimeMillis();
-			for (Entry<Npc, Long> entry : PENDING_RESPAWNS.entrySet())
+			final Spawn spawn = npc.getSpawn();
+			if (spawn != null)
 			{
-				if (time > entry.getValue().longValue())
-				{
-					final Npc npc = entry.getKey();
-					PENDING_RESPAWNS.remove(npc);
-					final Spawn spawn = npc.getSpawn();
-					if (spawn != null)
-					{
-						spawn.respawnNpc(npc);
-						spawn._scheduledCount--;
-					}
-				}
+				spawn.respawnNpc(npc);
+				spawn._scheduledCount--;
 			}
-			
-			_working = false;
-		}, 0, 1000);
-	}
-	
-	public void add(Npc npc, long time)
-	{
-		PENDING_RESPAWNS.put(npc, time);
+		}, time));
+		if (previous != null)
+		{
+			previous.cancel();
+		}
 	}
 	
 	public static RespawnTaskManager getInstance()
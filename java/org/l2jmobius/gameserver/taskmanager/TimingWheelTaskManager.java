@@ -0,0 +1,235 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.gameserver.taskmanager;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.l2jmobius.commons.concurrent.ThreadPool;
+import org.l2jmobius.commons.util.Chronos;
+
+/**
+ * Hashed timing wheel shared by the task managers that run something once a deadline is reached.<br>
+ * Each task is stored in the slot of the tick it expires on, so a tick only visits the tasks of one slot instead of every pending task.<br>
+ * Tasks further away than one rotation of the wheel stay in their slot and are skipped until their own tick comes.
+ * @author Mobius
+ */
+public class TimingWheelTaskManager
+{
+	private static final Logger LOGGER = Logger.getLogger(TimingWheelTaskManager.class.getName());
+	
+	private static final int TICK_TIME = 1000;
+	private static final int WHEEL_SIZE = 512; // Must be a power of 2.
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+	
+	private final Set<DeadlineTask>[] _wheel;
+	private final Map<String, TaskGroup> _groups = new ConcurrentSkipListMap<>();
+	private long _currentTick;
+	
+	@SuppressWarnings("unchecked")
+	protected TimingWheelTaskManager()
+	{
+		_wheel = (Set<DeadlineTask>[]) new Set<?>[WHEEL_SIZE];
+		for (int i = 0; i < WHEEL_SIZE; i++)
+		{
+			_wheel[i] = ConcurrentHashMap.newKeySet();
+		}
+		_currentTick = Chronos.currentTimeMillis() / TICK_TIME;
+		
+		ThreadPool.scheduleAtFixedRate(this::run, TICK_TIME, TICK_TIME);
+	}
+	
+	private void run()
+	{
+		// Also catches up on ticks missed while the scheduler was late.
+		final long lastTick = Chronos.currentTimeMillis() / TICK_TIME;
+		while (true)
+		{
+			final long tick;
+			synchronized (this)
+			{
+				if (_currentTick >= lastTick)
+				{
+					return;
+				}
+				tick = ++_currentTick;
+			}
+			
+			final Set<DeadlineTask> slot = _wheel[(int) (tick & WHEEL_MASK)];
+			for (DeadlineTask task : slot)
+			{
+				// Removal decides between a concurrent cancel and the execution.
+				if ((task._tick <= tick) && slot.remove(task))
+				{
+					task.execute();
+				}
+			}
+		}
+	}
+	
+	private void add(DeadlineTask task)
+	{
+		synchronized (this)
+		{
+			// The first tick after the deadline, never a tick that is already running.
+			task._tick = Math.max((task._deadline / TICK_TIME) + 1, _currentTick + 1);
+			_wheel[(int) (task._tick & WHEEL_MASK)].add(task);
+		}
+	}
+	
+	private boolean remove(DeadlineTask task)
+	{
+		return _wheel[(int) (task._tick & WHEEL_MASK)].remove(task);
+	}
+	
+	/**
+	 * @param name the name of the group, shown in the statistics
+	 * @return the task group with the given name, created if needed
+	 */
+	public TaskGroup getGroup(String name)
+	{
+		return _groups.computeIfAbsent(name, TaskGroup::new);
+	}
+	
+	public String[] getStats()
+	{
+		final String[] stats = new String[_groups.size() + 1];
+		int pos = 0;
+		
+		stats[pos++] = "Timing wheel:";
+		for (TaskGroup group : _groups.values())
+		{
+			stats[pos++] = " |- " + group.getName() + ": Pending " + group.getPendingCount() + ", Executed " + group._executed.sum() + ", Cancelled " + group._cancelled.sum();
+		}
+		
+		return stats;
+	}
+	
+	/**
+	 * Tasks of one task manager, counted separately.
+	 */
+	public class TaskGroup
+	{
+		private final String _name;
+		private final LongAdder _scheduled = new LongAdder();
+		private final LongAdder _executed = new LongAdder();
+		private final LongAdder _cancelled = new LongAdder();
+		
+		protected TaskGroup(String name)
+		{
+			_name = name;
+		}
+		
+		public String getName()
+		{
+			return _name;
+		}
+		
+		public long getPendingCount()
+		{
+			return _scheduled.sum() - _executed.sum() - _cancelled.sum();
+		}
+		
+		/**
+		 * @param runnable the task to run
+		 * @param deadline the time in milliseconds after which the task runs
+		 * @return the scheduled task
+		 */
+		public DeadlineTask schedule(Runnable runnable, long deadline)
+		{
+			return schedule(task -> runnable.run(), deadline);
+		}
+		
+		/**
+		 * @param action the task to run, given the scheduled task so it can tell whether it is still the current task of its owner
+		 * @param deadline the time in milliseconds after which the task runs
+		 * @return the scheduled task
+		 */
+		public DeadlineTask schedule(Consumer<DeadlineTask> action, long deadline)
+		{
+			final DeadlineTask task = new DeadlineTask(this, action, deadline);
+			_scheduled.increment();
+			add(task);
+			return task;
+		}
+	}
+	
+	/**
+	 * A task waiting in the wheel for its deadline.
+	 */
+	public class DeadlineTask
+	{
+		private final TaskGroup _group;
+		private final Consumer<DeadlineTask> _action;
+		private final long _deadline;
+		protected volatile long _tick;
+		
+		protected DeadlineTask(TaskGroup group, Consumer<DeadlineTask> action, long deadline)
+		{
+			_group = group;
+			_action = action;
+			_deadline = deadline;
+		}
+		
+		public long getDeadline()
+		{
+			return _deadline;
+		}
+		
+		/**
+		 * @return {@code true} if the task was cancelled, {@code false} if it already ran or was cancelled before
+		 */
+		public boolean cancel()
+		{
+			if (remove(this))
+			{
+				_group._cancelled.increment();
+				return true;
+			}
+			return false;
+		}
+		
+		protected void execute()
+		{
+			_group._executed.increment();
+			try
+			{
+				_action.accept(this);
+			}
+			catch (Exception e)
+			{
+				LOGGER.log(Level.WARNING, "TimingWheelTaskManager: Problem running " + _group.getName() + " task.", e);
+			}
+		}
+	}
+	
+	public static TimingWheelTaskManager getInstance()
+	{
+		return SingletonHolder.INSTANCE;
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final TimingWheelTaskManager INSTANCE = new TimingWheelTaskManager();
+	}
+}
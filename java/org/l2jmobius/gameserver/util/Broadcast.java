@@ -31,6 +31,7 @@ import org.l2jmobius.gameserver.network.serverpackets.CreatureSay;
 import org.l2jmobius.gameserver.network.serverpackets.ExShowScreenMessage;
 import org.l2jmobius.gameserver.network.serverpackets.IClientOutgoingPacket;
 import org.l2jmobius.gameserver.network.serverpackets.RelationChanged;
+import org.l2jmobius.gameserver.network.serverpackets.SharedClientPacket;
 
 /**
  * @version $Revision: 1.2 $ $Date: 2004/06/27 08:12:59 $
@@ -52,13 +53,21 @@ public class Broadcast
 	 */
 	public static void toPlayersTargettingMyself(Creature creature, IClientOutgoingPacket mov)
 	{
-		World.getInstance().forEachVisibleObject(creature, PlayerInstance.class, player ->
+		final IClientOutgoingPacket packet = SharedClientPacket.of(mov);
+		try
 		{
-			if (player.getTarget() == creature)
+			World.getInstance().forEachVisibleObject(creature, PlayerInstance.class, player ->
 			{
-				player.sendPacket(mov);
-			}
-		});
+				if (player.getTarget() == creature)
+				{
+					player.sendPacket(packet);
+				}
+			});
+		}
+		finally
+		{
+			SharedClientPacket.release(packet);
+		}
 	}
 	
 	/**
@@ -74,32 +83,41 @@ public class Broadcast
 	 */
 	public static void toKnownPlayers(Creature creature, IClientOutgoingPacket mov)
 	{
-		World.getInstance().forEachVisibleObject(creature, PlayerInstance.class, player ->
+		final boolean isCharInfo = (mov instanceof CharInfo) || ((mov instanceof SharedClientPacket) && (((SharedClientPacket) mov).getPacket() instanceof CharInfo));
+		final IClientOutgoingPacket packet = SharedClientPacket.of(mov);
+		try
 		{
-			try
+			World.getInstance().forEachVisibleObject(creature, PlayerInstance.class, player ->
 			{
-				player.sendPacket(mov);
-				if ((mov instanceof CharInfo) && creature.isPlayer())
+				try
 				{
-					final int relation = ((PlayerInstance) creature).getRelation(player);
-					final boolean isAutoAttackable = creature.isAutoAttackable(player);
-					final RelationCache cache = creature.getKnownRelations().get(player.getObjectId());
-					if ((cache == null) || (cache.getRelation() != relation) || (cache.isAutoAttackable() != isAutoAttackable))
+					player.sendPacket(packet);
+					if (isCharInfo && creature.isPlayer())
 					{
-						player.sendPacket(new RelationChanged((PlayerInstance) creature, relation, isAutoAttackable));
-						if (creature.hasSummon())
+						final int relation = ((PlayerInstance) creature).getRelation(player);
+						final boolean isAutoAttackable = creature.isAutoAttackable(player);
+						final RelationCache cache = creature.getKnownRelations().get(player.getObjectId());
+						if ((cache == null) || (cache.getRelation() != relation) || (cache.isAutoAttackable() != isAutoAttackable))
 						{
-							player.sendPacket(new RelationChanged(creature.getSummon(), relation, isAutoAttackable));
+							player.sendPacket(new RelationChanged((PlayerInstance) creature, relation, isAutoAttackable));
+							if (creature.hasSummon())
+							{
+								player.sendPacket(new RelationChanged(creature.getSummon(), relation, isAutoAttackable));
+							}
+							creature.getKnownRelations().put(player.getObjectId(), new RelationCache(relation, isAutoAttackable));
 						}
-						creature.getKnownRelations().put(player.getObjectId(), new RelationCache(relation, isAutoAttackable));
 					}
 				}
-			}
-			catch (NullPointerException e)
-			{
-				LOGGER.log(Level.WARNING, e.getMessage(), e);
-			}
-		});
+				catch (NullPointerException e)
+				{
+					LOGGER.log(Level.WARNING, e.getMessage(), e);
+				}
+			});
+		}
+		finally
+		{
+			SharedClientPacket.release(packet);
+		}
 	}
 	
 	/**
@@ -122,7 +140,15 @@ public class Broadcast
 			radius = 1500;
 		}
 		
-		World.getInstance().forEachVisibleObjectInRange(creature, PlayerInstance.class, radius, mov::sendTo);
+		final IClientOutgoingPacket packet = SharedClientPacket.of(mov);
+		try
+		{
+			World.getInstance().forEachVisibleObjectInRange(creature, PlayerInstance.class, radius, packet::sendTo);
+		}
+		finally
+		{
+			SharedClientPacket.release(packet);
+		}
 	}
 	
 	/**
@@ -137,12 +163,20 @@ public class Broadcast
 	 */
 	public static void toSelfAndKnownPlayers(Creature creature, IClientOutgoingPacket mov)
 	{
-		if (creature.isPlayer())
+		final IClientOutgoingPacket packet = SharedClientPacket.of(mov);
+		try
 		{
-			creature.sendPacket(mov);
+			if (creature.isPlayer())
+			{
+				creature.sendPacket(packet);
+			}
+			
+			toKnownPlayers(creature, packet);
+		}
+		finally
+		{
+			SharedClientPacket.release(packet);
 		}
-		
-		toKnownPlayers(creature, mov);
 	}
 	
 	// To improve performance we are comparing values of radius^2 instead of calculating sqrt all the time
@@ -154,12 +188,20 @@ public class Broadcast
 			radius = 600;
 		}
 		
-		if (creature.isPlayer())
+		final IClientOutgoingPacket packet = SharedClientPacket.of(mov);
+		try
 		{
-			creature.sendPacket(mov);
+			if (creature.isPlayer())
+			{
+				creature.sendPacket(packet);
+			}
+			
+			World.getInstance().forEachVisibleObjectInRange(creature, PlayerInstance.class, radius, packet::sendTo);
+		}
+		finally
+		{
+			SharedClientPacket.release(packet);
 		}
-		
-		World.getInstance().forEachVisibleObjectInRange(creature, PlayerInstance.class, radius, mov::sendTo);
 	}
 	
 	/**
@@ -173,13 +215,21 @@ public class Broadcast
 	 */
 	public static void toAllOnlinePlayers(IClientOutgoingPacket packet)
 	{
-		for (PlayerInstance player : World.getInstance().getPlayers())
+		final IClientOutgoingPacket shared = SharedClientPacket.of(packet);
+		try
 		{
-			if (player.isOnline())
+			for (PlayerInstance player : World.getInstance().getPlayers())
 			{
-				player.sendPacket(packet);
+				if (player.isOnline())
+				{
+					player.sendPacket(shared);
+				}
 			}
 		}
+		finally
+		{
+			SharedClientPacket.release(shared);
+		}
 	}
 	
 	public static void toAllOnlinePlayers(String text)
@@ -194,13 +244,21 @@ public class Broadcast
 	
 	public static void toPlayersInInstance(IClientOutgoingPacket packet, int instanceId)
 	{
-		for (PlayerInstance player : World.getInstance().getPlayers())
+		final IClientOutgoingPacket shared = SharedClientPacket.of(packet);
+		try
 		{
-			if (player.isOnline() && (player.getInstanceId() == instanceId))
+			for (PlayerInstance player : World.getInstance().getPlayers())
 			{
-				player.sendPacket(packet);
+				if (player.isOnline() && (player.getInstanceId() == instanceId))
+				{
+					player.sendPacket(shared);
+				}
 			}
 		}
+		finally
+		{
+			SharedClientPacket.release(shared);
+		}
 	}
 	
 	public static void toAllOnlinePlayersOnScreen(String text)
@@ -17,23 +17,24 @@
 package org.l2jmobius.loginserver.network;
 
 import org.l2jmobius.Config;
+import org.l2jmobius.commons.network.NetworkTransport;
 
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
 
 /**
  * @author Nos
  */
 public class EventLoopGroupManager
 {
-	private final NioEventLoopGroup _bossGroup = new NioEventLoopGroup(1);
-	private final NioEventLoopGroup _workerGroup = new NioEventLoopGroup(Config.IO_PACKET_THREAD_CORE_SIZE);
+	private final EventLoopGroup _bossGroup = NetworkTransport.newEventLoopGroup(NetworkTransport.getAcceptorCount());
+	private final EventLoopGroup _workerGroup = NetworkTransport.newEventLoopGroup(Config.IO_PACKET_THREAD_CORE_SIZE);
 	
-	public NioEventLoopGroup getBossGroup()
+	public EventLoopGroup getBossGroup()
 	{
 		return _bossGroup;
 	}
 	
-	public NioEventLoopGroup getWorkerGroup()
+	public EventLoopGroup getWorkerGroup()
 	{
 		return _workerGroup;
 	}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of the L2J Mobius project.
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.l2jmobius.tools.geodata;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.l2jmobius.Config;
+import org.l2jmobius.commons.enums.ServerMode;
+import org.l2jmobius.gameserver.geoengine.GeoDataCache;
+import org.l2jmobius.gameserver.model.World;
+
+/**
+ * Builds the geodata cache files of all region files, as configured in GeoEngine.ini.<br>
+ * Cache files that are up to date are kept, unless the "-force" argument is given.
+ * @author Mobius
+ */
+public class GeoDataConverter
+{
+	public static void main(String[] args)
+	{
+		Config.load(ServerMode.GAME);
+		final boolean force = (args.length > 0) && args[0].equalsIgnoreCase("-force");
+		
+		System.out.println("Converting " + Config.GEODATA_TYPE + " geodata files of " + Config.GEODATA_PATH + " to " + Config.GEODATA_CACHE_PATH);
+		int converted = 0;
+		int skipped = 0;
+		int failed = 0;
+		for (int regionX = World.TILE_X_MIN; regionX <= World.TILE_X_MAX; regionX++)
+		{
+			for (int regionY = World.TILE_Y_MIN; regionY <= World.TILE_Y_MAX; regionY++)
+			{
+				final Path source = GeoDataCache.getSourcePath(regionX, regionY);
+				if (!Files.exists(source))
+				{
+					continue;
+				}
+				
+				final Path cache = GeoDataCache.getCachePath(regionX, regionY);
+				try
+				{
+					if (!force && (GeoDataCache.load(source, cache, true) != null))
+					{
+						skipped++;
+						continue;
+					}
+					
+					final int blocks = GeoDataCache.build(source, cache, Config.GEODATA_TYPE);
+					System.out.println(source.getFileName() + ": " + Files.size(source) + " -> " + Files.size(cache) + " bytes, " + blocks + " distinct blocks.");
+					converted++;
+				}
+				catch (Exception e)
+				{
+					System.out.println(source.getFileName() + ": Conversion failed. " + e);
+					failed++;
+				}
+			}
+		}
+		System.out.println("Converted " + converted + " files, " + skipped + " up to date, " + failed + " failed.");
+		System.exit(failed > 0 ? 1 : 0);
+	}
+}